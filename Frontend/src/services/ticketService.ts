@@ -1,8 +1,9 @@
-import apiService from './api';
+import apiService, { API_BASE_URL } from './api';
 import type { 
   Ticket, 
   CreateTicketRequest, 
-  TicketResponse
+  TicketResponse,
+  TicketStatusDelta
 } from '../types/api';
 
 export const ticketService = {
@@ -76,5 +77,20 @@ export const ticketService = {
     } catch (error: any) {
       throw new Error(error.message || 'Failed to search tickets');
     }
+  },
+
+  // Live status changes instead of re-polling; returns a function that closes the stream.
+  // onResync is called when the stream was interrupted and the ticket list should be reloaded.
+  subscribeToAvailability(
+    eventName: string | undefined,
+    onDeltas: (deltas: TicketStatusDelta[]) => void,
+    onResync: () => void
+  ): () => void {
+    const query = eventName ? `?eventName=${encodeURIComponent(eventName)}` : '';
+    const source = new EventSource(`${API_BASE_URL}/api/tickets/live${query}`);
+    source.addEventListener('tickets', (event) => onDeltas(JSON.parse((event as MessageEvent).data)));
+    source.addEventListener('evicted', onResync);
+    source.onerror = onResync;
+    return () => source.close();
   }
-};
\ No newline at end of file
+};
@@ -27,6 +27,14 @@ export interface Ticket {
   updatedAt: string;
 }
 
+// One entry of the live availability feed (GET /api/tickets/live)
+export interface TicketStatusDelta {
+  id: string;
+  eventName?: string;
+  status: 'AVAILABLE' | 'SOLD' | 'RESERVED' | 'DELETED';
+  version: number;
+}
+
 export interface CreateTicketRequest {
   title: string;
   description: string;
@@ -1,16 +1,29 @@
 package com.ticketdaata.ordersservice.Client;
 
 import com.ticketdaata.ordersservice.dto.TicketResponse;
+import feign.Response;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-@FeignClient(name = "TICKETDAATA-TICKET-SERVICE", url = "http://localhost:8082")
+/**
+ * Resolved through Eureka and load balanced across Ticket Service instances. Every method runs behind its
+ * own Resilience4j circuit breaker, bulkhead and time limiter, named after the method (for example
+ * {@code TicketServiceClientgetTicketString}); see {@code resilience4j.*} in application.yml.
+ */
+@FeignClient(name = "TICKETDAATA-TICKET-SERVICE", fallbackFactory = TicketServiceClientFallbackFactory.class)
 public interface TicketServiceClient {
 
     @GetMapping("/tickets/{id}")
     ResponseEntity<TicketResponse> getTicket(@PathVariable("id") String ticketId);
 
+    /**
+     * Every ticket as NDJSON. The caller reads the body as it streams in and must close the response.
+     */
+    @GetMapping(value = "/tickets/snapshot", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    Response streamSnapshot();
+
     @PostMapping("/tickets/{id}/reserve")
     ResponseEntity<TicketResponse> reserveTicket(@PathVariable("id") String ticketId,
             @RequestParam("version") Long version);
@@ -20,4 +33,4 @@ public interface TicketServiceClient {
 
     @PostMapping("/tickets/{id}/sold")
     ResponseEntity<TicketResponse> markTicketSold(@PathVariable("id") String ticketId);
-}
\ No newline at end of file
+}
@@ -0,0 +1,78 @@
+package com.ticketdaata.ordersservice.Client;
+
+import com.ticketdaata.ordersservice.dto.TicketResponse;
+import feign.FeignException;
+import feign.Response;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.openfeign.FallbackFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Turns failed {@link TicketServiceClient} calls into the exceptions the order code already handles:
+ * a 404 becomes {@link IllegalArgumentException} (not found), every other failure, including an open
+ * circuit, a full bulkhead and a timeout, an {@link IllegalStateException} saying why.
+ */
+@Slf4j
+@Component
+public class TicketServiceClientFallbackFactory implements FallbackFactory<TicketServiceClient> {
+
+    @Override
+    public TicketServiceClient create(Throwable cause) {
+        return new TicketServiceClient() {
+            @Override
+            public ResponseEntity<TicketResponse> getTicket(String ticketId) {
+                throw translate("Ticket not found with ID: " + ticketId, "fetch ticket " + ticketId, cause);
+            }
+
+            @Override
+            public Response streamSnapshot() {
+                throw translate("Ticket snapshot not found", "stream the ticket snapshot", cause);
+            }
+
+            @Override
+            public ResponseEntity<TicketResponse> reserveTicket(String ticketId, Long version) {
+                throw translate("Ticket not found with ID: " + ticketId, "reserve ticket " + ticketId, cause);
+            }
+
+            @Override
+            public ResponseEntity<TicketResponse> releaseTicket(String ticketId) {
+                throw translate("Ticket not found with ID: " + ticketId, "release ticket " + ticketId, cause);
+            }
+
+            @Override
+            public ResponseEntity<TicketResponse> markTicketSold(String ticketId) {
+                throw translate("Ticket not found with ID: " + ticketId, "mark ticket " + ticketId + " sold", cause);
+            }
+        };
+    }
+
+    private static RuntimeException translate(String notFoundMessage, String action, Throwable cause) {
+        if (cause instanceof FeignException.NotFound) {
+            return new IllegalArgumentException(notFoundMessage);
+        }
+        if (cause instanceof FeignException.FeignClientException clientError) {
+            // 4xx: the Ticket Service rejected the request, pass its reason on
+            return new IllegalStateException(clientError.contentUTF8().isBlank()
+                    ? "Ticket Service refused to " + action + " (HTTP " + clientError.status() + ")"
+                    : clientError.contentUTF8());
+        }
+
+        String reason;
+        if (cause instanceof CallNotPermittedException) {
+            reason = "circuit breaker is open";
+        } else if (cause instanceof BulkheadFullException) {
+            reason = "too many concurrent calls";
+        } else if (cause instanceof TimeoutException) {
+            reason = "timed out";
+        } else {
+            reason = cause.getMessage();
+        }
+        log.warn("Ticket Service call to {} failed: {}", action, reason);
+        return new IllegalStateException("Ticket Service unavailable, could not " + action + ": " + reason, cause);
+    }
+}
@@ -0,0 +1,305 @@
+package com.ticketdaata.ordersservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal for the in-memory broker, stored in memory-mapped segment files.
+ * <p>
+ * Every sent message is appended with a monotonically increasing offset before it is queued, and an
+ * ACK record is appended once its listener has handled it. A flusher thread group-commits: one
+ * {@code force()} covers every record written since the previous one, and senders waiting in
+ * {@link #awaitDurable} are released together. Segments are deleted oldest-first once every message
+ * in them is acknowledged; ACKs only ever refer to the same or older segments, so dropping a prefix
+ * never loses an ACK that a surviving segment still needs. On boot the remaining segments are scanned
+ * and every unacknowledged message is handed back for redelivery (at-least-once).
+ * <p>
+ * Record layout: {@code [int bodyLength][int crc32(body)][byte type][long offset][...]}, where a
+ * MESSAGE body continues with the queue name, payload class name and JSON payload.
+ */
+@Slf4j
+class InMemoryJournal {
+
+    /**
+     * An unacknowledged message recovered from disk.
+     */
+    record PendingMessage(long offset, String queue, Object payload) {
+    }
+
+    private static final byte MESSAGE = 1;
+    private static final byte ACK = 2;
+    private static final int HEADER_BYTES = 8;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long flushIntervalNanos;
+    private final ObjectMapper objectMapper;
+
+    private final TreeMap<Long, JournalSegment> segments = new TreeMap<>();
+    private final List<PendingMessage> recovered = new ArrayList<>();
+    private final CRC32 crc = new CRC32();
+    private JournalSegment active;
+    private long nextOffset;
+    private long writtenOffset = -1;
+    private boolean dirty;
+
+    private final Object durableLock = new Object();
+    private volatile long durableOffset = -1;
+    private volatile boolean running = true;
+    private final Thread flusher;
+
+    InMemoryJournal(Path directory, int segmentBytes, long flushIntervalMs, ObjectMapper objectMapper) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.flushIntervalNanos = flushIntervalMs * 1_000_000L;
+        this.objectMapper = objectMapper;
+
+        Files.createDirectories(directory);
+        recover();
+        roll();
+
+        this.flusher = new Thread(this::flushLoop, "inmemory-journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Messages that were never acknowledged before the last shutdown, in offset order. Drained once.
+     */
+    synchronized List<PendingMessage> takeRecovered() {
+        List<PendingMessage> pending = new ArrayList<>(recovered);
+        recovered.clear();
+        return pending;
+    }
+
+    /**
+     * Appends a message and returns its offset. The record is durable once {@link #awaitDurable} returns.
+     */
+    synchronized long append(String queue, Object payload) {
+        byte[] queueName = queue.getBytes(StandardCharsets.UTF_8);
+        byte[] className = payload.getClass().getName().getBytes(StandardCharsets.UTF_8);
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(payload);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot journal message of type " + payload.getClass().getName(), e);
+        }
+
+        long offset = nextOffset++;
+        ByteBuffer body = ByteBuffer.allocate(1 + 8 + 2 + queueName.length + 2 + className.length + json.length);
+        body.put(MESSAGE).putLong(offset)
+                .putShort((short) queueName.length).put(queueName)
+                .putShort((short) className.length).put(className)
+                .put(json);
+        write(body.array());
+
+        segments.lastEntry().getValue().live().incrementAndGet();
+        writtenOffset = offset;
+        return offset;
+    }
+
+    /**
+     * Records that the message at {@code offset} was handled and drops fully acknowledged head segments.
+     */
+    synchronized void ack(long offset) {
+        ByteBuffer body = ByteBuffer.allocate(1 + 8);
+        body.put(ACK).putLong(offset);
+        write(body.array());
+
+        Map.Entry<Long, JournalSegment> owner = segments.floorEntry(offset);
+        if (owner != null) {
+            owner.getValue().live().decrementAndGet();
+        }
+        compact();
+    }
+
+    /**
+     * Blocks until every record up to {@code offset} has been forced to disk by the flusher.
+     */
+    void awaitDurable(long offset) {
+        if (durableOffset >= offset) {
+            return;
+        }
+        LockSupport.unpark(flusher);
+        synchronized (durableLock) {
+            while (durableOffset < offset && running) {
+                try {
+                    durableLock.wait(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for journal flush", e);
+                }
+            }
+        }
+    }
+
+    void shutdown() {
+        running = false;
+        LockSupport.unpark(flusher);
+        synchronized (this) {
+            for (JournalSegment segment : segments.values()) {
+                try {
+                    segment.close();
+                } catch (IOException e) {
+                    log.warn("[InMemory] Failed to close journal segment {}: {}", segment.baseOffset(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void write(byte[] body) {
+        int recordBytes = HEADER_BYTES + body.length;
+        if (recordBytes > segmentBytes) {
+            throw new IllegalStateException("Message of " + body.length + " bytes exceeds the journal segment size");
+        }
+        if (!active.hasRoom(recordBytes)) {
+            roll();
+        }
+        crc.reset();
+        crc.update(body);
+        active.buffer().putInt(body.length).putInt((int) crc.getValue()).put(body);
+        dirty = true;
+    }
+
+    private void roll() {
+        try {
+            JournalSegment previous = active;
+            active = JournalSegment.create(directory, nextOffset, segmentBytes);
+            segments.put(active.baseOffset(), active);
+            if (previous != null) {
+                previous.force();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create journal segment", e);
+        }
+    }
+
+    private void compact() {
+        while (segments.size() > 1) {
+            JournalSegment oldest = segments.firstEntry().getValue();
+            if (oldest == active || oldest.live().get() > 0) {
+                return;
+            }
+            segments.pollFirstEntry();
+            try {
+                oldest.closeAndDelete();
+            } catch (IOException e) {
+                log.warn("[InMemory] Failed to delete journal segment {}: {}", oldest.baseOffset(), e.getMessage());
+            }
+        }
+    }
+
+    private void flushLoop() {
+        while (running) {
+            LockSupport.parkNanos(flushIntervalNanos);
+            long target;
+            List<JournalSegment> toForce;
+            synchronized (this) {
+                if (!dirty) {
+                    continue;
+                }
+                target = writtenOffset;
+                toForce = List.of(active);
+                dirty = false;
+            }
+            toForce.forEach(JournalSegment::force);
+            synchronized (durableLock) {
+                durableOffset = target;
+                durableLock.notifyAll();
+            }
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(JournalSegment::isSegment).sorted().toList();
+        }
+
+        Map<Long, PendingMessage> unacked = new LinkedHashMap<>();
+        for (Path file : files) {
+            JournalSegment segment = JournalSegment.open(file);
+            segments.put(segment.baseOffset(), segment);
+            scan(segment, unacked);
+        }
+
+        for (PendingMessage message : unacked.values()) {
+            segments.floorEntry(message.offset()).getValue().live().incrementAndGet();
+            recovered.add(message);
+        }
+        // Old segments are never appended to again, so a fully acknowledged prefix can go right away. Like
+        // compact(), stop at the first segment with a live message: a fully acknowledged segment after it
+        // may still hold the ACKs of messages in that one
+        while (!segments.isEmpty() && segments.firstEntry().getValue().live().get() == 0) {
+            segments.pollFirstEntry().getValue().closeAndDelete();
+        }
+        // A surviving segment may hold nothing but ACKs, so its base can be past the last message offset.
+        // Start after it, or roll() would try to create a segment file that already exists
+        if (!segments.isEmpty()) {
+            nextOffset = Math.max(nextOffset, segments.lastKey() + 1);
+        }
+
+        if (!unacked.isEmpty() || !files.isEmpty()) {
+            log.info("[InMemory] Journal recovered {} unacknowledged messages from {} segments, next offset {}",
+                    unacked.size(), files.size(), nextOffset);
+        }
+    }
+
+    private void scan(JournalSegment segment, Map<Long, PendingMessage> unacked) {
+        ByteBuffer buffer = segment.buffer().duplicate();
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                return;
+            }
+            byte[] body = new byte[length];
+            buffer.get(body);
+            crc.reset();
+            crc.update(body);
+            if ((int) crc.getValue() != checksum) {
+                log.warn("[InMemory] Torn record in journal segment {}, ignoring the rest of it", segment.baseOffset());
+                return;
+            }
+
+            ByteBuffer record = ByteBuffer.wrap(body);
+            byte type = record.get();
+            long offset = record.getLong();
+            if (type == ACK) {
+                unacked.remove(offset);
+                continue;
+            }
+
+            nextOffset = Math.max(nextOffset, offset + 1);
+            String queue = readString(record);
+            String className = readString(record);
+            try {
+                Object payload = objectMapper.readValue(body, record.position(), record.remaining(), Class.forName(className));
+                unacked.put(offset, new PendingMessage(offset, queue, payload));
+            } catch (Exception e) {
+                log.error("[InMemory] Skipping unreadable journal record {} for queue '{}': {}", offset, queue, e.getMessage());
+            }
+        }
+    }
+
+    private static String readString(ByteBuffer record) {
+        byte[] bytes = new byte[record.getShort()];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -1,17 +1,35 @@
 package com.ticketdaata.ordersservice.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketdaata.inprocess.InProcessTransport;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.Declarables;
 import org.springframework.amqp.core.Queue;
-import org.springframework.amqp.core.TopicExchange;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
 
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -19,15 +37,105 @@ import java.util.concurrent.ConcurrentHashMap;
 /**
  * In-Memory Message Broker for Testing Without External RabbitMQ
  * This simulates RabbitMQ functionality for development/testing
+ * <p>
+ * Every queue is a bounded ring buffer with its own drain thread ({@link InMemoryQueue}), so a message
+ * is handed to its listener as soon as it is sent, in send order, and senders block when a queue is full.
+ * Routing follows AMQP topic semantics over the declared {@link Binding} beans, including those grouped
+ * in {@link Declarables} ({@link TopicRouter}),
+ * so a message reaches exactly the queues it would reach on RabbitMQ.
+ * <p>
+ * A failed delivery is retried in place, with exponential backoff and jitter, until the queue's max attempts
+ * (the {@code x-delivery-limit} argument of its {@link Queue} bean, else the configured default) are
+ * used up, then parked in that queue's dead-letter list for inspection and replay.
+ * <p>
+ * With {@code messaging.inmemory.journal.enabled} every message is written to an {@link InMemoryJournal}
+ * and forced to disk before it is queued, and acknowledged once its listener succeeds. Messages still
+ * unacknowledged at shutdown, including dead letters, are redelivered after the next start. Copies
+ * kept for a queue with no listener in this service are acknowledged right away, as are dead letters
+ * dropped once a queue's dead-letter list is full, so neither keeps journal segments alive.
+ * <p>
+ * With {@code messaging.inmemory.colocated} several services started in one JVM share a single broker
+ * through {@link InProcessTransport}: the first one to start owns the queues, the journal, queue stats
+ * and dead letters; the others add their bindings to it and send and listen through it.
  */
 @Slf4j
 @Configuration
+@RequiredArgsConstructor
 @ConditionalOnProperty(name = "messaging.mode", havingValue = "inmemory", matchIfMissing = true)
 public class InMemoryMessageBroker {
 
-    private final Map<String, ConcurrentLinkedQueue<Object>> queues = new ConcurrentHashMap<>();
-    private final Map<String, Consumer<Object>> listeners = new ConcurrentHashMap<>();
-    private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(5);
+    private final ObjectProvider<Binding> bindings;
+    private final ObjectProvider<Queue> declaredQueues;
+    private final ObjectProvider<Declarables> declarables;
+    private final ObjectMapper objectMapper;
+    private final Map<String, InMemoryQueue> queues = new ConcurrentHashMap<>();
+    private final Map<String, Integer> queueMaxAttempts = new ConcurrentHashMap<>();
+    private final Map<String, ConcurrentLinkedDeque<InMemoryDeadLetter>> deadLetters = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> deadLetteredCounts = new ConcurrentHashMap<>();
+    private final List<Binding> routedBindings = new CopyOnWriteArrayList<>();
+    private final InProcessTransport.Broker endpoint = new InProcessTransport.Broker() {
+        @Override
+        public void addBindings(Collection<Binding> bindings) {
+            InMemoryMessageBroker.this.addBindings(bindings);
+        }
+
+        @Override
+        public void addDeliveryLimits(Map<String, Integer> maxAttempts) {
+            queueMaxAttempts.putAll(maxAttempts);
+        }
+
+        @Override
+        public void send(String exchange, String routingKey, Object message) {
+            sendMessage(exchange, routingKey, message);
+        }
+
+        @Override
+        public void listen(String queueName, Consumer<Object> listener) {
+            registerListener(queueName, listener);
+        }
+    };
+    private volatile TopicRouter router;
+    private InProcessTransport.Broker primary;
+    private InMemoryJournal journal;
+
+    @Value("${messaging.inmemory.queue-capacity:65536}")
+    private int queueCapacity;
+
+    @Value("${messaging.inmemory.batch-size:256}")
+    private int batchSize;
+
+    @Value("${messaging.inmemory.send-timeout-ms:1000}")
+    private long sendTimeoutMs;
+
+    @Value("${messaging.inmemory.retry.max-attempts:5}")
+    private int defaultMaxAttempts;
+
+    @Value("${messaging.inmemory.retry.initial-backoff-ms:200}")
+    private long initialBackoffMs;
+
+    @Value("${messaging.inmemory.retry.multiplier:2.0}")
+    private double backoffMultiplier;
+
+    @Value("${messaging.inmemory.retry.max-backoff-ms:30000}")
+    private long maxBackoffMs;
+
+    @Value("${messaging.inmemory.dead-letter-capacity:10000}")
+    private int deadLetterCapacity;
+
+    @Value("${messaging.inmemory.journal.enabled:false}")
+    private boolean journalEnabled;
+
+    @Value("${messaging.inmemory.journal.dir:./data/inmemory-journal}")
+    private String journalDir;
+
+    @Value("${messaging.inmemory.journal.segment-bytes:67108864}")
+    private int journalSegmentBytes;
+
+    @Value("${messaging.inmemory.journal.flush-interval-ms:2}")
+    private long journalFlushIntervalMs;
+
+    @Value("${messaging.inmemory.colocated:false}")
+    private boolean colocated;
 
     /**
      * Simulated RabbitTemplate for sending messages
@@ -38,64 +146,256 @@ public class InMemoryMessageBroker {
         return new InMemoryRabbitTemplate(this);
     }
 
+    @PostConstruct
+    public void compileRoutes() {
+        List<Binding> declaredBindings = new ArrayList<>(bindings.orderedStream().toList());
+        List<Queue> queueBeans = new ArrayList<>(declaredQueues.orderedStream().toList());
+        declarables.orderedStream().forEach(group -> {
+            declaredBindings.addAll(group.getDeclarablesByType(Binding.class));
+            queueBeans.addAll(group.getDeclarablesByType(Queue.class));
+        });
+        addBindings(declaredBindings);
+        log.info("🔧 [InMemory] Compiled topic routes for exchanges: {}", router.exchanges());
+
+        queueBeans.forEach(queue -> {
+            Object deliveryLimit = queue.getArguments().get("x-delivery-limit");
+            if (deliveryLimit instanceof Number limit) {
+                queueMaxAttempts.put(queue.getName(), limit.intValue());
+            }
+        });
+
+        if (colocated) {
+            InProcessTransport.Broker joined = InProcessTransport.join(endpoint);
+            if (joined != endpoint) {
+                primary = joined;
+                primary.addBindings(routedBindings);
+                primary.addDeliveryLimits(queueMaxAttempts);
+                log.info("🔧 [InMemory] Co-located: routing through the in-process broker of the service started first");
+                // Nothing is queued here, so the primary's journal covers every message
+                return;
+            }
+        }
+
+        if (journalEnabled) {
+            try {
+                journal = new InMemoryJournal(Path.of(journalDir), journalSegmentBytes, journalFlushIntervalMs, objectMapper);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open in-memory broker journal at " + journalDir, e);
+            }
+            log.info("🔧 [InMemory] Journaling messages to {}", journalDir);
+        }
+    }
+
     /**
-     * Send message to a queue
+     * Requeues messages recovered from the journal once listeners are registered. Runs on its own thread
+     * because a queue without a listener would otherwise block startup once its buffer fills.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void replayJournal() {
+        if (journal == null) {
+            return;
+        }
+        List<InMemoryJournal.PendingMessage> recovered = journal.takeRecovered();
+        if (recovered.isEmpty()) {
+            return;
+        }
+        Thread replay = new Thread(() -> {
+            for (InMemoryJournal.PendingMessage message : recovered) {
+                if (!queue(message.queue()).publish(new InMemoryDelivery(message.payload(), message.offset()), Long.MAX_VALUE)) {
+                    acknowledge(message.offset());
+                }
+            }
+            log.info("[InMemory] Replayed {} journaled messages", recovered.size());
+        }, "inmemory-journal-replay");
+        replay.setDaemon(true);
+        replay.start();
+    }
+
+    /**
+     * Send message to every queue bound to the exchange with a matching binding key
      */
     public void sendMessage(String exchange, String routingKey, Object message) {
-        String queueName = determineQueueName(exchange, routingKey);
-        
-        queues.computeIfAbsent(queueName, k -> new ConcurrentLinkedQueue<>()).offer(message);
-        
-        log.info("📤 [InMemory] Sent message to queue '{}': {}", queueName, message.getClass().getSimpleName());
+        if (primary != null) {
+            primary.send(exchange, routingKey, message);
+            return;
+        }
+
+        List<String> queueNames = router.route(exchange, routingKey);
+        if (queueNames.isEmpty()) {
+            log.warn("[InMemory] Dropping unroutable message for exchange '{}' with routing key '{}'", exchange, routingKey);
+            return;
+        }
+
+        if (journal == null) {
+            for (int i = 0; i < queueNames.size(); i++) {
+                queue(queueNames.get(i)).publish(new InMemoryDelivery(message, -1), sendTimeoutMs);
+            }
+        } else {
+            // Write-ahead: the copy for every bound queue is durable before any of them is queued
+            long[] offsets = new long[queueNames.size()];
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = journal.append(queueNames.get(i), message);
+            }
+            journal.awaitDurable(offsets[offsets.length - 1]);
+            for (int i = 0; i < offsets.length; i++) {
+                if (!queue(queueNames.get(i)).publish(new InMemoryDelivery(message, offsets[i]), sendTimeoutMs)) {
+                    acknowledge(offsets[i]);
+                }
+            }
+        }
         
-        // Process message asynchronously
-        executor.schedule(() -> processMessage(queueName), 100, TimeUnit.MILLISECONDS);
+        log.debug("📤 [InMemory] Sent message to queues {}: {}", queueNames, message.getClass().getSimpleName());
     }
 
     /**
      * Register a message listener
      */
     public void registerListener(String queueName, Consumer<Object> listener) {
-        listeners.put(queueName, listener);
+        if (primary != null) {
+            primary.listen(queueName, listener);
+        } else {
+            queue(queueName).attach(listener);
+        }
         log.info("🔔 [InMemory] Registered listener for queue: {}", queueName);
     }
 
     /**
-     * Process messages in queue
+     * Register a listener for messages of one type. Messages are handed over by reference; only those
+     * sent by a co-located service, which has its own copy of the DTO class, are converted.
      */
-    private void processMessage(String queueName) {
-        ConcurrentLinkedQueue<Object> queue = queues.get(queueName);
-        Consumer<Object> listener = listeners.get(queueName);
-        
-        if (queue != null && listener != null && !queue.isEmpty()) {
-            Object message = queue.poll();
-            if (message != null) {
+    public <T> void registerListener(String queueName, Class<T> type, Consumer<T> listener) {
+        registerListener(queueName, message -> listener.accept(type.isInstance(message)
+                ? type.cast(message)
+                : objectMapper.convertValue(message, type)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (colocated) {
+            InProcessTransport.leave(endpoint);
+        }
+        queues.values().forEach(InMemoryQueue::shutdown);
+        if (journal != null) {
+            journal.shutdown();
+        }
+    }
+
+    public List<InMemoryQueueStats> queueStats() {
+        List<InMemoryQueueStats> stats = new ArrayList<>();
+        queues.forEach((name, queue) -> stats.add(InMemoryQueueStats.builder()
+                .queue(name)
+                .pending(queue.size())
+                .delivered(queue.deliveredCount())
+                .failed(queue.failedCount())
+                .redelivered(queue.redeliveredCount())
+                .discarded(queue.discardedCount())
+                .deadLettered(deadLetteredCounts.getOrDefault(name, new AtomicLong()).get())
+                .deadLetters(deadLetters.getOrDefault(name, new ConcurrentLinkedDeque<>()).size())
+                .build()));
+        return stats;
+    }
+
+    public List<InMemoryDeadLetter> deadLetters(String queueName) {
+        return List.copyOf(deadLetters.getOrDefault(queueName, new ConcurrentLinkedDeque<>()));
+    }
+
+    /**
+     * Moves dead letters back onto their queue with a fresh attempt budget.
+     *
+     * @param ids dead letters to replay, or null for all of them
+     * @return number of messages replayed
+     */
+    public int replayDeadLetters(String queueName, Collection<String> ids) {
+        ConcurrentLinkedDeque<InMemoryDeadLetter> parked = deadLetters.get(queueName);
+        if (parked == null) {
+            return 0;
+        }
+        int replayed = 0;
+        for (InMemoryDeadLetter deadLetter : parked) {
+            if ((ids == null || ids.contains(deadLetter.getId())) && parked.remove(deadLetter)) {
                 try {
-                    log.info("📥 [InMemory] Processing message from queue '{}': {}", queueName, message.getClass().getSimpleName());
-                    listener.accept(message);
-                    log.info("✅ [InMemory] Message processed successfully");
-                } catch (Exception e) {
-                    log.error("❌ [InMemory] Error processing message: {}", e.getMessage());
-                    // Re-queue message for retry (simple retry logic)
-                    queue.offer(message);
+                    if (!queue(queueName).publish(new InMemoryDelivery(deadLetter.getPayload(), deadLetter.getJournalOffset()), sendTimeoutMs)) {
+                        acknowledge(deadLetter.getJournalOffset());
+                    }
+                } catch (IllegalStateException e) {
+                    parked.addFirst(deadLetter);
+                    throw e;
                 }
+                replayed++;
             }
         }
+        log.info("[InMemory] Replayed {} dead letters on queue '{}'", replayed, queueName);
+        return replayed;
     }
 
-    /**
-     * Map exchange + routing key to queue name
-     */
-    private String determineQueueName(String exchange, String routingKey) {
-        // Simple mapping logic for our specific use case
-        if ("ticket.status.exchange".equals(exchange)) {
-            return "ticket.status." + routingKey.split("\\.")[2] + ".queue";
-        } else if ("ticket.reservation.exchange".equals(exchange)) {
-            return "ticket." + routingKey.split("\\.")[1] + ".queue";
-        } else if ("order.events.exchange".equals(exchange)) {
-            return "order." + routingKey.split("\\.")[1] + ".queue";
+    public int purgeDeadLetters(String queueName) {
+        ConcurrentLinkedDeque<InMemoryDeadLetter> parked = deadLetters.remove(queueName);
+        if (parked == null) {
+            return 0;
+        }
+        parked.forEach(deadLetter -> acknowledge(deadLetter.getJournalOffset()));
+        return parked.size();
+    }
+
+    private InMemoryQueue queue(String queueName) {
+        InMemoryQueue queue = queues.get(queueName);
+        if (queue != null) {
+            return queue;
+        }
+        return queues.computeIfAbsent(queueName,
+                name -> new InMemoryQueue(name, queueCapacity, batchSize, this::onDeliveryFailure,
+                        delivery -> acknowledge(delivery.getJournalOffset())));
+    }
+
+    private synchronized void addBindings(Collection<Binding> extra) {
+        routedBindings.addAll(extra);
+        router = new TopicRouter(routedBindings);
+    }
+
+    private void acknowledge(long journalOffset) {
+        if (journal != null && journalOffset >= 0) {
+            journal.ack(journalOffset);
+        }
+    }
+
+    private long onDeliveryFailure(InMemoryQueue queue, InMemoryDelivery delivery, Exception error) {
+        delivery.recordFailure(error.getMessage());
+        int attempts = delivery.getFailedAttempts();
+        int maxAttempts = queueMaxAttempts.getOrDefault(queue.getName(), defaultMaxAttempts);
+
+        if (attempts >= maxAttempts) {
+            deadLetter(queue.getName(), delivery);
+            return -1;
         }
-        return routingKey + ".queue";
+
+        long delayMs = backoff(attempts);
+        log.warn("[InMemory] Delivery attempt {}/{} on queue '{}' failed, retrying in {}ms: {}",
+                attempts, maxAttempts, queue.getName(), delayMs, error.getMessage());
+        return delayMs;
+    }
+
+    // Exponential backoff with equal jitter: half the step is fixed, the other half random
+    private long backoff(int attempts) {
+        double step = initialBackoffMs * Math.pow(backoffMultiplier, attempts - 1);
+        long capped = (long) Math.min(step, maxBackoffMs);
+        long half = Math.max(capped / 2, 1);
+        return half + ThreadLocalRandom.current().nextLong(half);
+    }
+
+    private void deadLetter(String queueName, InMemoryDelivery delivery) {
+        ConcurrentLinkedDeque<InMemoryDeadLetter> parked =
+                deadLetters.computeIfAbsent(queueName, name -> new ConcurrentLinkedDeque<>());
+        parked.addLast(new InMemoryDeadLetter(UUID.randomUUID().toString(), queueName, delivery.getPayload(),
+                delivery.getFailedAttempts(), delivery.getLastError(), LocalDateTime.now(), delivery.getJournalOffset()));
+        while (parked.size() > deadLetterCapacity) {
+            InMemoryDeadLetter dropped = parked.pollFirst();
+            if (dropped != null) {
+                acknowledge(dropped.getJournalOffset());
+            }
+        }
+        deadLetteredCounts.computeIfAbsent(queueName, name -> new AtomicLong()).incrementAndGet();
+        log.error("❌ [InMemory] Dead-lettered message on queue '{}' after {} attempts: {}",
+                queueName, delivery.getFailedAttempts(), delivery.getLastError());
     }
 
     /**
@@ -112,23 +412,4 @@ public class InMemoryMessageBroker {
             broker.sendMessage(exchange, routingKey, message);
         }
     }
-
-    // Create required beans to satisfy Spring Boot Auto-configuration
-    @Bean
-    public TopicExchange ticketStatusExchange() {
-        log.info("🔧 [InMemory] Created ticket status exchange");
-        return new TopicExchange("ticket.status.exchange");
-    }
-
-    @Bean  
-    public TopicExchange ticketReservationExchange() {
-        log.info("🔧 [InMemory] Created ticket reservation exchange");
-        return new TopicExchange("ticket.reservation.exchange");
-    }
-
-    @Bean
-    public TopicExchange orderEventsExchange() {
-        log.info("🔧 [InMemory] Created order events exchange");
-        return new TopicExchange("order.events.exchange");
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,18 @@
+package com.ticketdaata.ordersservice.config;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class InMemoryQueueStats {
+
+    private String queue;
+    private int pending;
+    private long delivered;
+    private long failed;
+    private long redelivered;
+    private long discarded;
+    private long deadLettered;
+    private int deadLetters;
+}
@@ -3,8 +3,10 @@ package com.ticketdaata.ordersservice.config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
 import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import org.slf4j.Logger;
@@ -27,6 +29,14 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
         return databaseName;
     }
 
+    /**
+     * Builds the indexes declared on the entities, including the TTL indexes, when their collections are first used.
+     */
+    @Override
+    protected boolean autoIndexCreation() {
+        return true;
+    }
+
     @Override
     @Bean
     public MongoClient mongoClient() {
@@ -48,9 +58,11 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
         }
     }
 
+    // Uses the configuration's converter so the template picks up its mapping context and index creation
+    @Override
     @Bean
-    public MongoTemplate mongoTemplate() throws Exception {
+    public MongoTemplate mongoTemplate(MongoDatabaseFactory databaseFactory, MappingMongoConverter converter) {
         log.info("MongoConfig: Creating MongoTemplate for database: {}", databaseName);
-        return new MongoTemplate(mongoClient(), getDatabaseName());
+        return new MongoTemplate(databaseFactory, converter);
     }
 }
\ No newline at end of file
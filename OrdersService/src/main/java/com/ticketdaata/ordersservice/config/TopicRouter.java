@@ -0,0 +1,135 @@
+package com.ticketdaata.ordersservice.config;
+
+import org.springframework.amqp.core.Binding;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * AMQP topic routing for the in-memory broker, compiled once from the declared {@link Binding} beans.
+ * Each exchange gets a trie of binding-key words with dedicated {@code *} (exactly one word) and
+ * {@code #} (zero or more words) edges. Resolved routes are memoized per routing key, so after the
+ * first message a send is two hash lookups and no allocation. Unknown exchanges route nowhere, like
+ * an unroutable publish on RabbitMQ; the default exchange ("") routes to the queue named by the key.
+ */
+class TopicRouter {
+
+    // Bounds the memo so arbitrary routing keys cannot grow it without limit
+    private static final int MAX_CACHED_ROUTES = 4096;
+
+    private final Map<String, Node> exchanges = new HashMap<>();
+    private final Map<String, Map<String, List<String>>> routeCache = new ConcurrentHashMap<>();
+
+    TopicRouter(Collection<Binding> bindings) {
+        for (Binding binding : bindings) {
+            if (binding.getDestinationType() != Binding.DestinationType.QUEUE) {
+                continue;
+            }
+            Node node = exchanges.computeIfAbsent(binding.getExchange(), exchange -> new Node());
+            String pattern = binding.getRoutingKey();
+            if (!pattern.isEmpty()) {
+                for (String word : pattern.split("\\.")) {
+                    node = node.child(word);
+                }
+            }
+            node.queues.add(binding.getDestination());
+        }
+    }
+
+    /**
+     * @return the distinct queues bound to {@code exchange} whose binding key matches {@code routingKey}
+     */
+    List<String> route(String exchange, String routingKey) {
+        Map<String, List<String>> cache = routeCache.computeIfAbsent(exchange, name -> new ConcurrentHashMap<>());
+        List<String> queues = cache.get(routingKey);
+        if (queues != null) {
+            return queues;
+        }
+
+        queues = resolve(exchange, routingKey);
+        if (cache.size() < MAX_CACHED_ROUTES) {
+            cache.put(routingKey, queues);
+        }
+        return queues;
+    }
+
+    Set<String> exchanges() {
+        return exchanges.keySet();
+    }
+
+    private List<String> resolve(String exchange, String routingKey) {
+        if (exchange.isEmpty()) {
+            return List.of(routingKey);
+        }
+        Node root = exchanges.get(exchange);
+        if (root == null) {
+            return List.of();
+        }
+        Set<String> matched = new LinkedHashSet<>();
+        match(root, routingKey, routingKey.isEmpty() ? 1 : 0, matched);
+        return List.copyOf(matched);
+    }
+
+    /**
+     * @param position start of the next word in {@code key}, or {@code key.length() + 1} once every
+     *                 word has been consumed
+     */
+    private static void match(Node node, String key, int position, Set<String> matched) {
+        if (node.hash != null) {
+            // '#' swallows zero or more words: try every remaining word boundary
+            int next = position;
+            while (true) {
+                match(node.hash, key, next, matched);
+                if (next > key.length()) {
+                    break;
+                }
+                int dot = key.indexOf('.', next);
+                next = dot < 0 ? key.length() + 1 : dot + 1;
+            }
+        }
+
+        if (position > key.length()) {
+            matched.addAll(node.queues);
+            return;
+        }
+
+        int dot = key.indexOf('.', position);
+        int end = dot < 0 ? key.length() : dot;
+        Node literal = node.children.get(key.substring(position, end));
+        if (literal != null) {
+            match(literal, key, end + 1, matched);
+        }
+        if (node.star != null) {
+            match(node.star, key, end + 1, matched);
+        }
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private final Set<String> queues = new LinkedHashSet<>();
+        private Node star;
+        private Node hash;
+
+        private Node child(String word) {
+            switch (word) {
+                case "*":
+                    if (star == null) {
+                        star = new Node();
+                    }
+                    return star;
+                case "#":
+                    if (hash == null) {
+                        hash = new Node();
+                    }
+                    return hash;
+                default:
+                    return children.computeIfAbsent(word, w -> new Node());
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.ticketdaata.ordersservice.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JCircuitBreakerFactory;
+import org.springframework.cloud.client.circuitbreaker.Customizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extra wiring for {@code spring.threads.virtual.enabled}, which only takes effect on a Java 21+ runtime.
+ * Spring Boot already moves Tomcat, {@code @Async}, {@code @Scheduled} and the Rabbit listener containers
+ * onto virtual threads; this covers the executor the Feign circuit breakers run their time-limited calls
+ * on, so a call waiting on the Ticket Service does not hold a platform thread either.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    public Customizer<Resilience4JCircuitBreakerFactory> virtualThreadCircuitBreakerExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("ticket-client-");
+        executor.setVirtualThreads(true);
+        return factory -> factory.configureExecutorService(new VirtualThreadExecutorService(executor));
+    }
+
+    /**
+     * One new virtual thread per task, behind the ExecutorService interface the time limiter expects.
+     */
+    private static final class VirtualThreadExecutorService extends AbstractExecutorService {
+
+        private final SimpleAsyncTaskExecutor executor;
+        private volatile boolean shutdown;
+
+        private VirtualThreadExecutorService(SimpleAsyncTaskExecutor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (shutdown) {
+                throw new RejectedExecutionException("Executor has been shut down");
+            }
+            executor.execute(command);
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            return List.of();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
@@ -6,10 +6,13 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 
+import java.util.List;
+
 @Data
 @Getter
 @Setter
@@ -20,13 +23,24 @@ public class CreateOrderRequest {
     @NotBlank(message = "User ID is required")
     private String userId;
 
-    @NotBlank(message = "Ticket ID is required")
     private String ticketId;
 
+    // Seat block: all tickets are reserved together, all-or-nothing. Takes precedence over ticketId
+    private List<String> ticketIds;
+
     @NotNull(message = "Quantity is required")
     @Positive(message = "Quantity must be positive")
     private Integer quantity;
 
     // Note: Other fields like price, event details will be fetched from Ticket
     // Service
+
+    @AssertTrue(message = "Ticket ID is required")
+    public boolean isTicketSelected() {
+        return (ticketId != null && !ticketId.isBlank()) || (ticketIds != null && !ticketIds.isEmpty());
+    }
+
+    public boolean isSeatBlock() {
+        return ticketIds != null && !ticketIds.isEmpty();
+    }
 }
\ No newline at end of file
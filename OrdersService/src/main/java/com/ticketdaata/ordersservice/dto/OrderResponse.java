@@ -7,6 +7,7 @@ import lombok.AllArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
@@ -16,6 +17,7 @@ public class OrderResponse {
     private String id;
     private String userId;
     private String ticketId;
+    private List<String> ticketIds;
     private String ticketTitle;
     private String eventName;
     private String eventDate;
@@ -24,6 +26,7 @@ public class OrderResponse {
     private Integer quantity;
     private BigDecimal totalAmount;
     private Order.OrderStatus status;
+    private Order.ReservationStatus reservationStatus;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private LocalDateTime expiresAt;
@@ -40,6 +43,7 @@ public class OrderResponse {
         response.setId(order.getId());
         response.setUserId(order.getUserId());
         response.setTicketId(order.getTicketId());
+        response.setTicketIds(order.getTicketIds());
         response.setTicketTitle(order.getTicketTitle());
         response.setEventName(order.getEventName());
         response.setEventDate(order.getEventDate());
@@ -48,6 +52,7 @@ public class OrderResponse {
         response.setQuantity(order.getQuantity());
         response.setTotalAmount(order.getTotalAmount());
         response.setStatus(order.getStatus());
+        response.setReservationStatus(order.getReservationStatus());
         response.setCreatedAt(order.getCreatedAt());
         response.setUpdatedAt(order.getUpdatedAt());
         response.setExpiresAt(order.getExpiresAt());
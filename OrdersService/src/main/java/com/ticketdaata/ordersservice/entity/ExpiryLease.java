@@ -0,0 +1,27 @@
+package com.ticketdaata.ordersservice.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lease on one expiry partition: the owning replica is the only one sweeping orders of that partition
+ * until {@code expiresAt}, unless it renews the lease first.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "expiry_leases")
+public class ExpiryLease {
+
+    @Id
+    private Integer partition;
+
+    private String owner;
+
+    private LocalDateTime expiresAt;
+}
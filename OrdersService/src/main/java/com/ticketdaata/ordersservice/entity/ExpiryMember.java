@@ -0,0 +1,27 @@
+package com.ticketdaata.ordersservice.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Heartbeat of a live OrdersService replica, used to size each replica's share of expiry partitions.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "expiry_members")
+public class ExpiryMember {
+
+    @Id
+    private String instanceId;
+
+    // Mongo drops members that stopped heartbeating
+    @Indexed(expireAfter = "10m")
+    private LocalDateTime heartbeatAt;
+}
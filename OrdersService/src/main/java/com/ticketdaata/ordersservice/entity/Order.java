@@ -5,15 +5,23 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "orders")
+@CompoundIndexes({
+        @CompoundIndex(name = "status_partition_expiresAt_id", def = "{'status': 1, 'expiryPartition': 1, 'expiresAt': 1, '_id': 1}"),
+        @CompoundIndex(name = "outboxSince_partition", def = "{'outboxSince': 1, 'expiryPartition': 1}", sparse = true)
+})
 public class Order {
     
     @Id
@@ -25,6 +33,9 @@ public class Order {
     @Indexed
     private String ticketId;
     
+    // All seats of a seat-block order (ticketId is the first of them); null for single-ticket orders
+    private List<String> ticketIds;
+    
     private String ticketTitle;
     private String eventName;
     private String eventDate;
@@ -43,6 +54,19 @@ public class Order {
     @Indexed
     private LocalDateTime expiresAt;
     
+    // Hash partition of the id; expiry sweeps only cover partitions leased by the replica
+    private Integer expiryPartition;
+    
+    // Batch expiry run that moved this order to EXPIRED
+    @Indexed(sparse = true)
+    private String expiryBatchId;
+    
+    // Reservation saga: REQUESTED when created, HELD once the Ticket Service confirmed every seat
+    private ReservationStatus reservationStatus;
+    
+    // Seats the Ticket Service has confirmed as reserved for this order
+    private List<String> heldTicketIds;
+    
     private String paymentId;
     private String cancellationReason;
     
@@ -50,6 +74,12 @@ public class Order {
     private String sellerId;
     private String sellerUsername;
     
+    // Events not yet published; written in the same document update as the change they describe
+    private List<OutboxEvent> outbox;
+    
+    // Creation time of the oldest unpublished event; absent once the outbox is drained
+    private LocalDateTime outboxSince;
+    
     public enum OrderStatus {
         PENDING,
         COMPLETED,
@@ -57,11 +87,33 @@ public class Order {
         EXPIRED
     }
     
+    public enum ReservationStatus {
+        REQUESTED,
+        HELD,
+        FAILED
+    }
+    
     // Helper method to check if order is expired
     public boolean isExpired() {
         return expiresAt != null && LocalDateTime.now().isAfter(expiresAt);
     }
     
+    // Helper method to list every ticket held by this order
+    public List<String> seatTicketIds() {
+        return ticketIds != null && !ticketIds.isEmpty() ? ticketIds : List.of(ticketId);
+    }
+    
+    // Helper method to queue an event for the outbox relay
+    public void addOutboxEvent(OutboxEvent event) {
+        if (outbox == null) {
+            outbox = new ArrayList<>();
+        }
+        outbox.add(event);
+        if (outboxSince == null) {
+            outboxSince = event.getCreatedAt();
+        }
+    }
+    
     // Helper method to calculate expiration time
     public void setExpirationTime(int minutes) {
         this.expiresAt = LocalDateTime.now().plusMinutes(minutes);
@@ -0,0 +1,34 @@
+package com.ticketdaata.ordersservice.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Message waiting in an order's outbox. {@code eventId} doubles as the message id consumers
+ * deduplicate on, so a republished event has no second effect.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    private String eventId;
+
+    private String exchange;
+
+    private String routingKey;
+
+    /**
+     * Ticket partition key of ticket events, the order's first ticket; the publisher appends its partition to the routing key.
+     */
+    private String partitionKey;
+
+    private Object payload;
+
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,38 @@
+package com.ticketdaata.ordersservice.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Id of a message this service has claimed for processing; lets consumers skip redeliveries that outlive
+ * the in-memory dedup window, including across restarts. A claim is a lease until the handler finishes:
+ * one still {@link Status#CLAIMED} past the lease timeout belongs to a consumer that died and may be taken over.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "processed_messages")
+public class ProcessedMessage {
+
+    public enum Status {
+        CLAIMED,
+        DONE
+    }
+
+    @Id
+    private String messageId;
+
+    private Status status;
+
+    private LocalDateTime claimedAt;
+
+    // Mongo drops ids once redeliveries of them are no longer plausible
+    @Indexed(expireAfter = "1d")
+    private LocalDateTime processedAt;
+}
@@ -0,0 +1,171 @@
+package com.ticketdaata.ordersservice.expiration;
+
+import com.ticketdaata.ordersservice.entity.ExpiryLease;
+import com.ticketdaata.ordersservice.entity.ExpiryMember;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+
+/**
+ * Splits order expiry work across OrdersService replicas. Order ids hash into a fixed number of
+ * partitions; each partition is leased in Mongo by one replica at a time. Every heartbeat a replica
+ * renews its leases, gives back partitions above its fair share and picks up unowned or expired
+ * ones, so a dead replica's partitions fail over within one lease TTL.
+ */
+@Slf4j
+@Component
+public class ExpiryLeaseManager {
+
+    private final MongoTemplate mongoTemplate;
+    private final int partitions;
+    private final long leaseTtlSeconds;
+    private final String instanceId;
+
+    private final Set<Integer> ownedPartitions = ConcurrentHashMap.newKeySet();
+    private final List<IntConsumer> acquireListeners = new CopyOnWriteArrayList<>();
+
+    public ExpiryLeaseManager(MongoTemplate mongoTemplate,
+                              @Value("${orders.expiration.partitions:16}") int partitions,
+                              @Value("${orders.expiration.lease-ttl-seconds:30}") long leaseTtlSeconds) {
+        this.mongoTemplate = mongoTemplate;
+        this.partitions = partitions;
+        this.leaseTtlSeconds = leaseTtlSeconds;
+        this.instanceId = hostName() + ":" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    public int partitionOf(String orderId) {
+        return Math.floorMod(orderId.hashCode(), partitions);
+    }
+
+    /**
+     * Partition keys to match on {@code expiryPartition}. The owner of partition 0 also takes orders
+     * written before partitioning existed, which have no partition (matched by null).
+     */
+    public List<Integer> ownedPartitionKeys() {
+        List<Integer> keys = new ArrayList<>(ownedPartitions);
+        if (ownedPartitions.contains(0)) {
+            keys.add(null);
+        }
+        return keys;
+    }
+
+    public List<Integer> partitionKeys(int partition) {
+        List<Integer> keys = new ArrayList<>();
+        keys.add(partition);
+        if (partition == 0) {
+            keys.add(null);
+        }
+        return keys;
+    }
+
+    /**
+     * Registers a callback invoked with each partition this replica newly acquires.
+     */
+    public void onAcquired(IntConsumer listener) {
+        acquireListeners.add(listener);
+    }
+
+    @Scheduled(fixedDelayString = "${orders.expiration.heartbeat-ms:10000}")
+    public void heartbeat() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseUntil = now.plusSeconds(leaseTtlSeconds);
+
+        try {
+            mongoTemplate.upsert(Query.query(Criteria.where("_id").is(instanceId)),
+                    Update.update("heartbeatAt", now), ExpiryMember.class);
+            long liveMembers = mongoTemplate.count(
+                    Query.query(Criteria.where("heartbeatAt").gt(now.minusSeconds(leaseTtlSeconds))), ExpiryMember.class);
+            int fairShare = (int) Math.ceil((double) partitions / Math.max(liveMembers, 1));
+
+            for (Integer partition : List.copyOf(ownedPartitions)) {
+                if (!lease(partition, now, leaseUntil, false)) {
+                    ownedPartitions.remove(partition);
+                    log.warn("Lost expiry lease on partition {}", partition);
+                }
+            }
+
+            ownedPartitions.stream().sorted().skip(fairShare).toList().forEach(this::release);
+
+            int start = ThreadLocalRandom.current().nextInt(partitions);
+            for (int i = 0; i < partitions && ownedPartitions.size() < fairShare; i++) {
+                int partition = (start + i) % partitions;
+                if (!ownedPartitions.contains(partition) && lease(partition, now, leaseUntil, true)) {
+                    ownedPartitions.add(partition);
+                    log.info("Acquired expiry lease on partition {}", partition);
+                    acquireListeners.forEach(listener -> listener.accept(partition));
+                }
+            }
+        } catch (Exception e) {
+            log.error("Expiry lease heartbeat failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void releaseAll() {
+        List.copyOf(ownedPartitions).forEach(this::release);
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(instanceId)), ExpiryMember.class);
+    }
+
+    /**
+     * Renews a lease held by this replica, or when {@code acquire} is set also takes it over if it is
+     * unowned or expired.
+     */
+    private boolean lease(int partition, LocalDateTime now, LocalDateTime leaseUntil, boolean acquire) {
+        Criteria criteria = Criteria.where("_id").is(partition);
+        if (acquire) {
+            criteria = criteria.orOperator(
+                    Criteria.where("owner").is(instanceId),
+                    Criteria.where("expiresAt").lt(now));
+        } else {
+            criteria = criteria.and("owner").is(instanceId);
+        }
+
+        Update update = new Update()
+                .set("owner", instanceId)
+                .set("expiresAt", leaseUntil);
+
+        try {
+            return mongoTemplate.findAndModify(Query.query(criteria), update,
+                    FindAndModifyOptions.options().returnNew(true).upsert(acquire), ExpiryLease.class) != null;
+        } catch (DuplicateKeyException e) {
+            // Lease exists and is held by another replica
+            return false;
+        }
+    }
+
+    private void release(int partition) {
+        ownedPartitions.remove(partition);
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(partition).and("owner").is(instanceId)),
+                new Update().unset("owner").set("expiresAt", LocalDateTime.now()),
+                ExpiryLease.class);
+        log.info("Released expiry lease on partition {}", partition);
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "orders-service";
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.ticketdaata.ordersservice.expiration;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory order expiration engine built on a hierarchical timing wheel.
+ * Scheduling and cancelling are O(1); a single driver thread sleeps on a DelayQueue of non-empty
+ * buckets and hands every order that came due in one advance to the handler as a single batch.
+ * The handler must not block the driver for long; it is expected to dispatch the work elsewhere.
+ * <p>
+ * Wheel state is guarded by a {@link ReentrantLock} rather than a monitor: request threads schedule and
+ * cancel on it, and a virtual thread waiting on a contended monitor would pin its carrier thread.
+ */
+@Slf4j
+@Component
+public class OrderExpirationTimer {
+
+    private static final long POLL_TIMEOUT_MS = 500;
+
+    private final DelayQueue<TimerBucket> delayQueue = new DelayQueue<>();
+    private final Map<String, TimerEntry> entries = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final TimingWheel wheel;
+    private final long tickMs;
+
+    private volatile Consumer<List<String>> expirationHandler;
+    private volatile boolean running;
+    private Thread driver;
+
+    public OrderExpirationTimer(@Value("${orders.expiration.tick-ms:200}") long tickMs,
+                                @Value("${orders.expiration.wheel-size:64}") int wheelSize) {
+        this.tickMs = tickMs;
+        this.wheel = new TimingWheel(tickMs, wheelSize, System.currentTimeMillis(), delayQueue);
+    }
+
+    /**
+     * Sets the callback invoked with the ids of orders whose expiration fired.
+     */
+    public void onExpiration(Consumer<List<String>> handler) {
+        this.expirationHandler = handler;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        driver = new Thread(this::runDriver, "order-expiration-timer");
+        driver.setDaemon(true);
+        driver.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (driver != null) {
+            driver.interrupt();
+        }
+    }
+
+    /**
+     * Schedules (or reschedules) expiration of an order. Deadlines already in the past fire immediately.
+     */
+    public void schedule(String orderId, LocalDateTime expiresAt) {
+        // Buckets fire at the start of their tick, so push the deadline one tick out to never expire early
+        long deadlineMs = expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() + tickMs;
+        TimerEntry entry = new TimerEntry(orderId, deadlineMs);
+
+        boolean due;
+        lock.lock();
+        try {
+            cancel(orderId);
+            due = !wheel.add(entry);
+            if (!due) {
+                entries.put(orderId, entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (due) {
+            fire(List.of(orderId));
+        }
+    }
+
+    /**
+     * @return true if a pending expiration was removed
+     */
+    public boolean cancel(String orderId) {
+        lock.lock();
+        try {
+            TimerEntry entry = entries.remove(orderId);
+            if (entry == null) {
+                return false;
+            }
+            if (entry.bucket != null) {
+                entry.bucket.remove(entry);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int pendingCount() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void runDriver() {
+        while (running) {
+            try {
+                TimerBucket bucket = delayQueue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (bucket != null) {
+                    fire(advance(bucket));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Order expiration timer failed to advance: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private List<String> advance(TimerBucket bucket) {
+        List<String> due = new ArrayList<>();
+        lock.lock();
+        try {
+            while (bucket != null) {
+                wheel.advanceClock(bucket.getExpiration());
+                bucket.flush(entry -> {
+                    if (!wheel.add(entry)) {
+                        entries.remove(entry.getOrderId());
+                        due.add(entry.getOrderId());
+                    }
+                });
+                bucket = delayQueue.poll();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return due;
+    }
+
+    private void fire(List<String> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        Consumer<List<String>> handler = expirationHandler;
+        if (handler == null) {
+            log.warn("No expiration handler registered, dropping expiration of {} orders", orderIds.size());
+            return;
+        }
+        try {
+            handler.accept(orderIds);
+        } catch (Exception e) {
+            log.error("Failed to dispatch expiration of {} orders: {}", orderIds.size(), e.getMessage());
+        }
+    }
+}
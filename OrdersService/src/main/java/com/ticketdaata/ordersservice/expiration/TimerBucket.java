@@ -0,0 +1,68 @@
+package com.ticketdaata.ordersservice.expiration;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * One slot of a timing wheel. The bucket itself sits in the shared DelayQueue, so the driver thread
+ * only wakes up when a non-empty slot is due instead of ticking through empty ones.
+ * Mutations are guarded by the owning {@link OrderExpirationTimer}.
+ */
+class TimerBucket implements Delayed {
+
+    private final Set<TimerEntry> entries = new LinkedHashSet<>();
+    private volatile long expirationMs = -1;
+
+    void add(TimerEntry entry) {
+        entries.add(entry);
+        entry.bucket = this;
+    }
+
+    void remove(TimerEntry entry) {
+        if (entries.remove(entry)) {
+            entry.bucket = null;
+        }
+    }
+
+    /**
+     * Empties the bucket and hands every entry back to the wheel, which either re-files it in a finer
+     * slot or reports it as due.
+     */
+    void flush(Consumer<TimerEntry> reinsert) {
+        List<TimerEntry> drained = new ArrayList<>(entries);
+        entries.clear();
+        expirationMs = -1;
+        for (TimerEntry entry : drained) {
+            entry.bucket = null;
+            reinsert.accept(entry);
+        }
+    }
+
+    /**
+     * @return true if the expiration changed, i.e. the bucket must be (re)offered to the delay queue
+     */
+    boolean setExpiration(long expirationMs) {
+        long previous = this.expirationMs;
+        this.expirationMs = expirationMs;
+        return previous != expirationMs;
+    }
+
+    long getExpiration() {
+        return expirationMs;
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+        return unit.convert(Math.max(expirationMs - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+        return Long.compare(expirationMs, ((TimerBucket) other).expirationMs);
+    }
+}
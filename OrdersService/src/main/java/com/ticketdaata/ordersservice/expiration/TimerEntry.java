@@ -0,0 +1,21 @@
+package com.ticketdaata.ordersservice.expiration;
+
+import lombok.Getter;
+
+/**
+ * A pending order expiration inside the timing wheel.
+ */
+@Getter
+class TimerEntry {
+
+    private final String orderId;
+    private final long deadlineMs;
+
+    // Bucket currently holding this entry, null once fired or cancelled
+    TimerBucket bucket;
+
+    TimerEntry(String orderId, long deadlineMs) {
+        this.orderId = orderId;
+        this.deadlineMs = deadlineMs;
+    }
+}
@@ -0,0 +1,64 @@
+package com.ticketdaata.ordersservice.expiration;
+
+import java.util.concurrent.DelayQueue;
+
+/**
+ * One level of a hierarchical timing wheel. Deadlines beyond this level's span go to a coarser
+ * overflow wheel (created on demand) and cascade down as its buckets come due.
+ * Not thread-safe; guarded by the owning {@link OrderExpirationTimer}.
+ */
+class TimingWheel {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long intervalMs;
+    private final TimerBucket[] buckets;
+    private final DelayQueue<TimerBucket> delayQueue;
+
+    private long currentTimeMs;
+    private TimingWheel overflowWheel;
+
+    TimingWheel(long tickMs, int wheelSize, long startMs, DelayQueue<TimerBucket> delayQueue) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.intervalMs = tickMs * wheelSize;
+        this.delayQueue = delayQueue;
+        this.currentTimeMs = startMs - (startMs % tickMs);
+        this.buckets = new TimerBucket[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new TimerBucket();
+        }
+    }
+
+    /**
+     * @return false if the entry is already due and should fire now
+     */
+    boolean add(TimerEntry entry) {
+        long deadlineMs = entry.getDeadlineMs();
+        if (deadlineMs < currentTimeMs + tickMs) {
+            return false;
+        }
+        if (deadlineMs < currentTimeMs + intervalMs) {
+            long virtualId = deadlineMs / tickMs;
+            TimerBucket bucket = buckets[(int) (virtualId % wheelSize)];
+            bucket.add(entry);
+            if (bucket.setExpiration(virtualId * tickMs)) {
+                delayQueue.offer(bucket);
+            }
+            return true;
+        }
+        if (overflowWheel == null) {
+            overflowWheel = new TimingWheel(intervalMs, wheelSize, currentTimeMs, delayQueue);
+        }
+        return overflowWheel.add(entry);
+    }
+
+    void advanceClock(long timeMs) {
+        if (timeMs >= currentTimeMs + tickMs) {
+            currentTimeMs = timeMs - (timeMs % tickMs);
+            if (overflowWheel != null) {
+                overflowWheel.advanceClock(currentTimeMs);
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.ticketdaata.ordersservice.messaging.config;
+
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Base64UrlNamingStrategy;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Exchanges, queues and bindings of the messaging topology. Declared in every messaging mode: RabbitMQ
+ * creates them on the broker, and the in-memory broker compiles its routing table from the same beans.
+ */
+@Configuration
+public class MessagingTopologyConfig {
+
+    // Exchanges
+    @Bean
+    public TopicExchange ticketExchange() {
+        return new TopicExchange(RabbitMQConfig.TICKET_EXCHANGE);
+    }
+
+    @Bean
+    public TopicExchange orderExchange() {
+        return new TopicExchange(RabbitMQConfig.ORDER_EXCHANGE);
+    }
+
+    // Queues for Order Service to process
+    @Bean
+    public Queue ticketStatusUpdateQueue() {
+        return QueueBuilder.durable(RabbitMQConfig.TICKET_STATUS_UPDATE_QUEUE).build();
+    }
+
+    @Bean
+    public Queue orderExpirationQueue() {
+        return QueueBuilder.durable(RabbitMQConfig.ORDER_EXPIRATION_QUEUE).build();
+    }
+
+    /**
+     * Ticket change events feeding the local ticket replica. Every replica of this service needs all of
+     * them, so each one gets its own exclusive, auto-deleted queue instead of sharing a durable one.
+     */
+    @Bean
+    public Queue ticketReplicaQueue() {
+        return new AnonymousQueue(new Base64UrlNamingStrategy(RabbitMQConfig.TICKET_REPLICA_QUEUE_PREFIX));
+    }
+
+    // Queues for publishing order status updates
+    @Bean
+    public Queue orderStatusQueue() {
+        return QueueBuilder.durable(RabbitMQConfig.ORDER_STATUS_QUEUE).build();
+    }
+
+    // Bindings for Order Service to receive ticket status updates
+    @Bean
+    public Binding ticketStatusUpdateBinding() {
+        return BindingBuilder.bind(ticketStatusUpdateQueue())
+                .to(ticketExchange())
+                .with(RabbitMQConfig.TICKET_STATUS_UPDATE_ROUTING_KEY);
+    }
+
+    @Bean
+    public Binding ticketReplicaBinding() {
+        return BindingBuilder.bind(ticketReplicaQueue())
+                .to(ticketExchange())
+                .with(RabbitMQConfig.TICKET_CHANGED_ROUTING_KEY);
+    }
+
+    // Binding for order expiration
+    @Bean
+    public Binding orderExpirationBinding() {
+        return BindingBuilder.bind(orderExpirationQueue())
+                .to(orderExchange())
+                .with(RabbitMQConfig.ORDER_EXPIRATION_ROUTING_KEY);
+    }
+
+    // Bindings for publishing order status
+    @Bean
+    public Binding orderCreatedBinding() {
+        return BindingBuilder.bind(orderStatusQueue())
+                .to(orderExchange())
+                .with(RabbitMQConfig.ORDER_CREATED_ROUTING_KEY);
+    }
+
+    @Bean
+    public Binding orderCompletedBinding() {
+        return BindingBuilder.bind(orderStatusQueue())
+                .to(orderExchange())
+                .with(RabbitMQConfig.ORDER_COMPLETED_ROUTING_KEY);
+    }
+
+    @Bean
+    public Binding orderCancelledBinding() {
+        return BindingBuilder.bind(orderStatusQueue())
+                .to(orderExchange())
+                .with(RabbitMQConfig.ORDER_CANCELLED_ROUTING_KEY);
+    }
+
+    @Bean
+    public Binding orderExpiredBinding() {
+        return BindingBuilder.bind(orderStatusQueue())
+                .to(orderExchange())
+                .with(RabbitMQConfig.ORDER_EXPIRED_ROUTING_KEY);
+    }
+}
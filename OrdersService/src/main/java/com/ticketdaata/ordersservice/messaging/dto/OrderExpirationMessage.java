@@ -12,6 +12,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class OrderExpirationMessage {
+    private String messageId; // Unique per publish; consumers skip ids they already processed
     private String orderId;
     private String ticketId;
     private String userId;
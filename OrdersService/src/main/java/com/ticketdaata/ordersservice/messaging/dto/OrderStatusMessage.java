@@ -13,6 +13,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class OrderStatusMessage {
+    private String messageId; // Unique per publish (the outbox event id when relayed); consumers skip ids they already processed
     private String orderId;
     private String ticketId;
     private String userId;
@@ -6,17 +6,20 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class TicketReservationMessage {
+    private String messageId; // Unique per publish (the outbox event id when relayed); consumers skip ids they already processed
     private String ticketId;
     private String orderId;
     private String userId;
     private Long version;
-    private String eventType; // RESERVE_TICKET, RELEASE_TICKET, MARK_SOLD
+    private Map<String, Long> ticketVersions; // Seat block: ticket id -> expected version (RESERVE_TICKETS)
+    private String eventType; // RESERVE_TICKET, RESERVE_TICKETS, RELEASE_TICKET, MARK_SOLD
     private LocalDateTime timestamp;
     private String reason; // Optional reason for release/cancellation
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.ticketdaata.ordersservice.messaging.dto;
+
+import com.ticketdaata.ordersservice.dto.TicketResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Full state of a ticket after a change, received by every replica to keep its local copy current.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketSnapshotMessage {
+    private String messageId;
+    private String ticketId;
+    private TicketResponse ticket; // Null for TICKET_DELETED
+    private Long version; // Version the change produced; replicas ignore snapshots older than what they hold
+    private LocalDateTime timestamp;
+    private String eventType; // TICKET_CHANGED, TICKET_DELETED
+}
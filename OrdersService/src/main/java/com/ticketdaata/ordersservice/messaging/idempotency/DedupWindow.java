@@ -0,0 +1,48 @@
+package com.ticketdaata.ordersservice.messaging.idempotency;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Message ids seen during a sliding time window, kept in a ring of buckets. Inserts go to the newest
+ * bucket and lookups check every bucket; when the newest bucket has covered its share of the window,
+ * or is full, the oldest bucket is dropped whole. There is no per-entry expiry bookkeeping and memory
+ * is bounded by the bucket capacity.
+ */
+class DedupWindow {
+
+    private final AtomicReferenceArray<Set<String>> buckets;
+    private final long bucketMillis;
+    private final int bucketCapacity;
+    private int current;
+    private long currentStartedAt = System.currentTimeMillis();
+
+    DedupWindow(long windowMillis, int bucketCount, int maxEntries) {
+        this.buckets = new AtomicReferenceArray<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            buckets.set(i, ConcurrentHashMap.newKeySet());
+        }
+        this.bucketMillis = Math.max(windowMillis / bucketCount, 1);
+        this.bucketCapacity = Math.max(maxEntries / bucketCount, 1);
+    }
+
+    boolean contains(String id) {
+        for (int i = 0; i < buckets.length(); i++) {
+            if (buckets.get(i).contains(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    synchronized void add(String id) {
+        long now = System.currentTimeMillis();
+        if (now - currentStartedAt >= bucketMillis || buckets.get(current).size() >= bucketCapacity) {
+            current = (current + 1) % buckets.length();
+            buckets.set(current, ConcurrentHashMap.newKeySet());
+            currentStartedAt = now;
+        }
+        buckets.get(current).add(id);
+    }
+}
@@ -0,0 +1,31 @@
+package com.ticketdaata.ordersservice.messaging.listener;
+
+import com.ticketdaata.ordersservice.config.InMemoryMessageBroker;
+import com.ticketdaata.ordersservice.messaging.dto.TicketSnapshotMessage;
+import com.ticketdaata.ordersservice.replica.TicketReplica;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory counterpart of {@link TicketReplicaListener}: consumes this replica's ticket change queue of
+ * the in-memory broker on that queue's drain thread.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "messaging.mode", havingValue = "inmemory", matchIfMissing = true)
+public class InMemoryTicketReplicaListener {
+
+    private final InMemoryMessageBroker broker;
+    private final TicketReplica ticketReplica;
+
+    @Value("#{ticketReplicaQueue.name}")
+    private String queueName;
+
+    @PostConstruct
+    public void register() {
+        broker.registerListener(queueName, TicketSnapshotMessage.class, ticketReplica::handleTicketSnapshot);
+    }
+}
@@ -0,0 +1,28 @@
+package com.ticketdaata.ordersservice.messaging.listener;
+
+import com.ticketdaata.ordersservice.config.InMemoryMessageBroker;
+import com.ticketdaata.ordersservice.messaging.config.RabbitMQConfig;
+import com.ticketdaata.ordersservice.messaging.dto.TicketStatusUpdateMessage;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory counterpart of {@link TicketStatusListener}: consumes the ticket status queue of the
+ * in-memory broker on that queue's drain thread.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "messaging.mode", havingValue = "inmemory", matchIfMissing = true)
+public class InMemoryTicketStatusListener {
+
+    private final InMemoryMessageBroker broker;
+    private final TicketStatusHandler ticketStatusHandler;
+
+    @PostConstruct
+    public void register() {
+        broker.registerListener(RabbitMQConfig.TICKET_STATUS_UPDATE_QUEUE, TicketStatusUpdateMessage.class,
+                ticketStatusHandler::handleTicketStatusUpdate);
+    }
+}
@@ -0,0 +1,21 @@
+package com.ticketdaata.ordersservice.messaging.listener;
+
+import com.ticketdaata.ordersservice.messaging.dto.TicketSnapshotMessage;
+import com.ticketdaata.ordersservice.replica.TicketReplica;
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "messaging.mode", havingValue = "rabbitmq")
+public class TicketReplicaListener {
+
+    private final TicketReplica ticketReplica;
+
+    @RabbitListener(queues = "#{ticketReplicaQueue.name}")
+    public void handleTicketSnapshot(TicketSnapshotMessage message) {
+        ticketReplica.handleTicketSnapshot(message);
+    }
+}
@@ -0,0 +1,73 @@
+package com.ticketdaata.ordersservice.messaging.listener;
+
+import com.ticketdaata.ordersservice.messaging.dto.TicketStatusUpdateMessage;
+import com.ticketdaata.ordersservice.messaging.idempotency.ProcessedMessageStore;
+import com.ticketdaata.ordersservice.service.OrderService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reacts to ticket status updates from the ticket service, whichever transport delivered them.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TicketStatusHandler {
+
+    private final OrderService orderService;
+    private final ProcessedMessageStore processedMessages;
+
+    public void handleTicketStatusUpdate(TicketStatusUpdateMessage message) {
+        log.info("Received ticket status update: {}", message);
+
+        try {
+            processedMessages.processOnce(message.getMessageId(), () -> dispatch(message));
+        } catch (RuntimeException e) {
+            // Rethrown so the transport retries: a lost saga reply would leave the order unconfirmed
+            log.error("Failed to process ticket status update: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    private void dispatch(TicketStatusUpdateMessage message) {
+        switch (message.getEventType()) {
+            case "TICKET_RESERVED":
+                handleTicketReserved(message);
+                break;
+            case "TICKET_RESERVATION_FAILED":
+                handleTicketReservationFailed(message);
+                break;
+            case "TICKET_RELEASED":
+                handleTicketReleased(message);
+                break;
+            case "TICKET_SOLD":
+                handleTicketSold(message);
+                break;
+            default:
+                log.warn("Unknown ticket event type: {}", message.getEventType());
+        }
+    }
+
+    private void handleTicketReserved(TicketStatusUpdateMessage message) {
+        log.info("Ticket {} reserved for order {}", message.getTicketId(), message.getOrderId());
+        orderService.confirmReservation(message.getOrderId(), message.getTicketId());
+    }
+
+    private void handleTicketReservationFailed(TicketStatusUpdateMessage message) {
+        log.warn("Reservation failed for order {}: {}", message.getOrderId(), message.getReason());
+        orderService.failReservation(message.getOrderId(), message.getReason());
+    }
+
+    private void handleTicketReleased(TicketStatusUpdateMessage message) {
+        log.info("Ticket {} released for order {}", message.getTicketId(), message.getOrderId());
+        // Additional logic for when ticket is released
+        // For example, you could clean up pending orders or send notification
+    }
+
+    private void handleTicketSold(TicketStatusUpdateMessage message) {
+        log.info("Ticket {} marked as sold for order {}", message.getTicketId(), message.getOrderId());
+        // Additional logic for when ticket is sold
+        // For example, you could trigger payment processing or send confirmation
+    }
+}
\ No newline at end of file
@@ -2,62 +2,221 @@ package com.ticketdaata.ordersservice.messaging.publisher;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import com.ticketdaata.ordersservice.config.InMemoryMessageBroker;
+import com.ticketdaata.ordersservice.entity.OutboxEvent;
+import com.ticketdaata.ordersservice.expiration.OrderExpirationTimer;
+import com.ticketdaata.ordersservice.messaging.config.RabbitMQConfig;
+import com.ticketdaata.ordersservice.messaging.config.TicketPartitioning;
+import com.ticketdaata.ordersservice.messaging.dto.OrderStatusMessage;
+import com.ticketdaata.ordersservice.messaging.dto.TicketReservationMessage;
+
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 @Component
+@RequiredArgsConstructor
 @ConditionalOnProperty(name = "messaging.mode", havingValue = "inmemory", matchIfMissing = true)
 public class InMemoryOrderEventPublisher implements OrderEventPublisherInterface {
 
+    private final InMemoryMessageBroker.InMemoryRabbitTemplate rabbitTemplate;
+    private final OrderExpirationTimer orderExpirationTimer;
+    private final TicketPartitioning ticketPartitioning;
+
     @Override
     public void publishOrderCreated(String orderId, String ticketId, String userId, BigDecimal totalAmount) {
-        log.info("📤 [InMemory] Published order created event for order: {}, ticket: {}, user: {}, amount: {}", 
-                orderId, ticketId, userId, totalAmount);
+        OrderStatusMessage message = OrderStatusMessage.builder()
+                .messageId(UUID.randomUUID().toString())
+                .orderId(orderId)
+                .ticketId(ticketId)
+                .userId(userId)
+                .status("PENDING")
+                .previousStatus("NONE")
+                .totalAmount(totalAmount)
+                .timestamp(LocalDateTime.now())
+                .eventType("ORDER_CREATED")
+                .build();
+
+        publishOrderStatus(message, RabbitMQConfig.ORDER_CREATED_ROUTING_KEY);
+        log.info("📤 [InMemory] Published order created event for order: {}, ticket: {}", orderId, ticketId);
     }
 
     @Override
     public void publishOrderCompleted(String orderId, String ticketId, String userId, BigDecimal totalAmount) {
-        log.info("📤 [InMemory] Published order completed event for order: {}, ticket: {}, user: {}, amount: {}", 
-                orderId, ticketId, userId, totalAmount);
+        OrderStatusMessage message = OrderStatusMessage.builder()
+                .messageId(UUID.randomUUID().toString())
+                .orderId(orderId)
+                .ticketId(ticketId)
+                .userId(userId)
+                .status("COMPLETED")
+                .previousStatus("PENDING")
+                .totalAmount(totalAmount)
+                .timestamp(LocalDateTime.now())
+                .eventType("ORDER_COMPLETED")
+                .build();
+
+        publishOrderStatus(message, RabbitMQConfig.ORDER_COMPLETED_ROUTING_KEY);
+        log.info("📤 [InMemory] Published order completed event for order: {}, ticket: {}", orderId, ticketId);
     }
 
     @Override
     public void publishOrderCancelled(String orderId, String ticketId, String userId, String reason) {
-        log.info("📤 [InMemory] Published order cancelled event for order: {}, ticket: {}, user: {}, reason: {}", 
-                orderId, ticketId, userId, reason);
+        OrderStatusMessage message = OrderStatusMessage.builder()
+                .messageId(UUID.randomUUID().toString())
+                .orderId(orderId)
+                .ticketId(ticketId)
+                .userId(userId)
+                .status("CANCELLED")
+                .previousStatus("PENDING")
+                .timestamp(LocalDateTime.now())
+                .eventType("ORDER_CANCELLED")
+                .reason(reason)
+                .build();
+
+        publishOrderStatus(message, RabbitMQConfig.ORDER_CANCELLED_ROUTING_KEY);
+        log.info("📤 [InMemory] Published order cancelled event for order: {}, ticket: {}, reason: {}", orderId, ticketId, reason);
     }
 
     @Override
     public void publishOrderExpired(String orderId, String ticketId, String userId) {
-        log.info("📤 [InMemory] Published order expired event for order: {}, ticket: {}, user: {}", 
-                orderId, ticketId, userId);
+        OrderStatusMessage message = OrderStatusMessage.builder()
+                .messageId(UUID.randomUUID().toString())
+                .orderId(orderId)
+                .ticketId(ticketId)
+                .userId(userId)
+                .status("EXPIRED")
+                .previousStatus("PENDING")
+                .timestamp(LocalDateTime.now())
+                .eventType("ORDER_EXPIRED")
+                .build();
+
+        publishOrderStatus(message, RabbitMQConfig.ORDER_EXPIRED_ROUTING_KEY);
+        log.info("📤 [InMemory] Published order expired event for order: {}, ticket: {}", orderId, ticketId);
     }
 
     @Override
     public void publishTicketReservationRequest(String ticketId, String orderId, String userId, Long version) {
-        log.info("📤 [InMemory] Published ticket reservation request for ticket: {}, order: {}, user: {}, version: {}", 
-                ticketId, orderId, userId, version);
+        TicketReservationMessage message = TicketReservationMessage.builder()
+                .messageId(UUID.randomUUID().toString())
+                .ticketId(ticketId)
+                .orderId(orderId)
+                .userId(userId)
+                .version(version)
+                .eventType("RESERVE_TICKET")
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        publishTicketReservation(message, RabbitMQConfig.TICKET_RESERVE_ROUTING_KEY, ticketId);
+        log.info("📤 [InMemory] Published ticket reservation request for ticket: {}, order: {}", ticketId, orderId);
+    }
+
+    @Override
+    public void publishTicketBlockReservationRequest(Map<String, Long> ticketVersions, String orderId, String userId) {
+        TicketReservationMessage message = TicketReservationMessage.builder()
+                .messageId(UUID.randomUUID().toString())
+                .orderId(orderId)
+                .userId(userId)
+                .ticketVersions(ticketVersions)
+                .eventType("RESERVE_TICKETS")
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        publishTicketReservation(message, RabbitMQConfig.TICKET_RESERVE_ROUTING_KEY,
+                ticketVersions.keySet().iterator().next());
+        log.info("📤 [InMemory] Published seat block reservation request for tickets: {}, order: {}", ticketVersions.keySet(), orderId);
     }
 
     @Override
     public void publishTicketReleaseRequest(String ticketId, String orderId, String userId, String reason) {
-        log.info("📤 [InMemory] Published ticket release request for ticket: {}, order: {}, user: {}, reason: {}", 
-                ticketId, orderId, userId, reason);
+        TicketReservationMessage message = TicketReservationMessage.builder()
+                .messageId(UUID.randomUUID().toString())
+                .ticketId(ticketId)
+                .orderId(orderId)
+                .userId(userId)
+                .eventType("RELEASE_TICKET")
+                .timestamp(LocalDateTime.now())
+                .reason(reason)
+                .build();
+
+        publishTicketReservation(message, RabbitMQConfig.TICKET_RELEASE_ROUTING_KEY, ticketId);
+        log.info("📤 [InMemory] Published ticket release request for ticket: {}, order: {}, reason: {}", ticketId, orderId, reason);
     }
 
     @Override
     public void publishTicketSoldRequest(String ticketId, String orderId, String userId) {
-        log.info("📤 [InMemory] Published ticket sold request for ticket: {}, order: {}, user: {}", 
-                ticketId, orderId, userId);
+        TicketReservationMessage message = TicketReservationMessage.builder()
+                .messageId(UUID.randomUUID().toString())
+                .ticketId(ticketId)
+                .orderId(orderId)
+                .userId(userId)
+                .eventType("MARK_SOLD")
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        publishTicketReservation(message, RabbitMQConfig.TICKET_SOLD_ROUTING_KEY, ticketId);
+        log.info("📤 [InMemory] Published ticket sold request for ticket: {}, order: {}", ticketId, orderId);
     }
 
+    /**
+     * Expiry runs off the local timing wheel; nothing consumes order.expiration.queue in-process, so
+     * no scheduling message is sent.
+     */
     @Override
     public void scheduleOrderExpiration(String orderId, String ticketId, String userId, LocalDateTime expirationTime) {
+        orderExpirationTimer.schedule(orderId, expirationTime);
         log.info("📤 [InMemory] Scheduled order expiration for order: {}, ticket: {}, user: {}, expiration: {}", 
                 orderId, ticketId, userId, expirationTime);
     }
-}
\ No newline at end of file
+
+    @Override
+    public void cancelOrderExpiration(String orderId) {
+        if (orderExpirationTimer.cancel(orderId)) {
+            log.debug("Cancelled order expiration for order: {}", orderId);
+        }
+    }
+
+    @Override
+    public void publishOutboxEvents(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            rabbitTemplate.convertAndSend(event.getExchange(), routingKey(event), event.getPayload());
+        }
+        log.debug("📤 [InMemory] Published {} outbox events", events.size());
+    }
+
+    private void publishOrderStatus(OrderStatusMessage message, String routingKey) {
+        try {
+            rabbitTemplate.convertAndSend(
+                    RabbitMQConfig.ORDER_EXCHANGE,
+                    routingKey,
+                    message
+            );
+        } catch (Exception e) {
+            log.error("❌ [InMemory] Failed to publish order status: {}", e.getMessage(), e);
+        }
+    }
+
+    private void publishTicketReservation(TicketReservationMessage message, String routingKey, String partitionKey) {
+        try {
+            rabbitTemplate.convertAndSend(
+                    RabbitMQConfig.TICKET_EXCHANGE,
+                    ticketPartitioning.routingKey(routingKey, partitionKey),
+                    message
+            );
+        } catch (Exception e) {
+            log.error("❌ [InMemory] Failed to publish ticket reservation: {}", e.getMessage(), e);
+        }
+    }
+
+    private String routingKey(OutboxEvent event) {
+        return event.getPartitionKey() != null
+                ? ticketPartitioning.routingKey(event.getRoutingKey(), event.getPartitionKey())
+                : event.getRoutingKey();
+    }
+}
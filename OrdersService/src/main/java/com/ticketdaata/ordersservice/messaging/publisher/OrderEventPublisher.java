@@ -2,12 +2,18 @@ package com.ticketdaata.ordersservice.messaging.publisher;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import com.ticketdaata.ordersservice.entity.OutboxEvent;
+import com.ticketdaata.ordersservice.expiration.OrderExpirationTimer;
 import com.ticketdaata.ordersservice.messaging.config.RabbitMQConfig;
+import com.ticketdaata.ordersservice.messaging.config.TicketPartitioning;
 import com.ticketdaata.ordersservice.messaging.dto.OrderExpirationMessage;
 import com.ticketdaata.ordersservice.messaging.dto.OrderStatusMessage;
 import com.ticketdaata.ordersservice.messaging.dto.TicketReservationMessage;
@@ -21,10 +27,13 @@ import lombok.extern.slf4j.Slf4j;
 @ConditionalOnProperty(name = "messaging.mode", havingValue = "rabbitmq")
 public class OrderEventPublisher implements OrderEventPublisherInterface {
 
-    private final RabbitTemplate rabbitTemplate;
+    private final RabbitPublishPipeline publishPipeline;
+    private final OrderExpirationTimer orderExpirationTimer;
+    private final TicketPartitioning ticketPartitioning;
 
     public void publishOrderCreated(String orderId, String ticketId, String userId, BigDecimal totalAmount) {
         OrderStatusMessage message = OrderStatusMessage.builder()
+                .messageId(UUID.randomUUID().toString())
                 .orderId(orderId)
                 .ticketId(ticketId)
                 .userId(userId)
@@ -41,6 +50,7 @@ public class OrderEventPublisher implements OrderEventPublisherInterface {
 
     public void publishOrderCompleted(String orderId, String ticketId, String userId, BigDecimal totalAmount) {
         OrderStatusMessage message = OrderStatusMessage.builder()
+                .messageId(UUID.randomUUID().toString())
                 .orderId(orderId)
                 .ticketId(ticketId)
                 .userId(userId)
@@ -57,6 +67,7 @@ public class OrderEventPublisher implements OrderEventPublisherInterface {
 
     public void publishOrderCancelled(String orderId, String ticketId, String userId, String reason) {
         OrderStatusMessage message = OrderStatusMessage.builder()
+                .messageId(UUID.randomUUID().toString())
                 .orderId(orderId)
                 .ticketId(ticketId)
                 .userId(userId)
@@ -73,6 +84,7 @@ public class OrderEventPublisher implements OrderEventPublisherInterface {
 
     public void publishOrderExpired(String orderId, String ticketId, String userId) {
         OrderStatusMessage message = OrderStatusMessage.builder()
+                .messageId(UUID.randomUUID().toString())
                 .orderId(orderId)
                 .ticketId(ticketId)
                 .userId(userId)
@@ -88,6 +100,7 @@ public class OrderEventPublisher implements OrderEventPublisherInterface {
 
     public void publishTicketReservationRequest(String ticketId, String orderId, String userId, Long version) {
         TicketReservationMessage message = TicketReservationMessage.builder()
+                .messageId(UUID.randomUUID().toString())
                 .ticketId(ticketId)
                 .orderId(orderId)
                 .userId(userId)
@@ -96,12 +109,28 @@ public class OrderEventPublisher implements OrderEventPublisherInterface {
                 .timestamp(LocalDateTime.now())
                 .build();
 
-        publishTicketReservation(message, RabbitMQConfig.TICKET_RESERVE_ROUTING_KEY);
+        publishTicketReservation(message, RabbitMQConfig.TICKET_RESERVE_ROUTING_KEY, ticketId);
         log.info("Published ticket reservation request for ticket: {}, order: {}", ticketId, orderId);
     }
 
+    public void publishTicketBlockReservationRequest(Map<String, Long> ticketVersions, String orderId, String userId) {
+        TicketReservationMessage message = TicketReservationMessage.builder()
+                .messageId(UUID.randomUUID().toString())
+                .orderId(orderId)
+                .userId(userId)
+                .ticketVersions(ticketVersions)
+                .eventType("RESERVE_TICKETS")
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        publishTicketReservation(message, RabbitMQConfig.TICKET_RESERVE_ROUTING_KEY,
+                ticketVersions.keySet().iterator().next());
+        log.info("Published seat block reservation request for tickets: {}, order: {}", ticketVersions.keySet(), orderId);
+    }
+
     public void publishTicketReleaseRequest(String ticketId, String orderId, String userId, String reason) {
         TicketReservationMessage message = TicketReservationMessage.builder()
+                .messageId(UUID.randomUUID().toString())
                 .ticketId(ticketId)
                 .orderId(orderId)
                 .userId(userId)
@@ -110,12 +139,13 @@ public class OrderEventPublisher implements OrderEventPublisherInterface {
                 .reason(reason)
                 .build();
 
-        publishTicketReservation(message, RabbitMQConfig.TICKET_RELEASE_ROUTING_KEY);
+        publishTicketReservation(message, RabbitMQConfig.TICKET_RELEASE_ROUTING_KEY, ticketId);
         log.info("Published ticket release request for ticket: {}, order: {}, reason: {}", ticketId, orderId, reason);
     }
 
     public void publishTicketSoldRequest(String ticketId, String orderId, String userId) {
         TicketReservationMessage message = TicketReservationMessage.builder()
+                .messageId(UUID.randomUUID().toString())
                 .ticketId(ticketId)
                 .orderId(orderId)
                 .userId(userId)
@@ -123,12 +153,15 @@ public class OrderEventPublisher implements OrderEventPublisherInterface {
                 .timestamp(LocalDateTime.now())
                 .build();
 
-        publishTicketReservation(message, RabbitMQConfig.TICKET_SOLD_ROUTING_KEY);
+        publishTicketReservation(message, RabbitMQConfig.TICKET_SOLD_ROUTING_KEY, ticketId);
         log.info("Published ticket sold request for ticket: {}, order: {}", ticketId, orderId);
     }
 
     public void scheduleOrderExpiration(String orderId, String ticketId, String userId, LocalDateTime expirationTime) {
+        orderExpirationTimer.schedule(orderId, expirationTime);
+
         OrderExpirationMessage message = OrderExpirationMessage.builder()
+                .messageId(UUID.randomUUID().toString())
                 .orderId(orderId)
                 .ticketId(ticketId)
                 .userId(userId)
@@ -138,7 +171,7 @@ public class OrderEventPublisher implements OrderEventPublisherInterface {
                 .build();
 
         try {
-            rabbitTemplate.convertAndSend(
+            publishPipeline.publish(
                     RabbitMQConfig.ORDER_EXCHANGE,
                     RabbitMQConfig.ORDER_EXPIRATION_ROUTING_KEY,
                     message
@@ -149,9 +182,27 @@ public class OrderEventPublisher implements OrderEventPublisherInterface {
         }
     }
 
+    public void cancelOrderExpiration(String orderId) {
+        if (orderExpirationTimer.cancel(orderId)) {
+            log.debug("Cancelled order expiration for order: {}", orderId);
+        }
+    }
+
+    /**
+     * Waits for the broker to confirm the whole batch, so the relay only drops events that are safe.
+     */
+    public void publishOutboxEvents(List<OutboxEvent> events) {
+        CompletableFuture<?>[] confirmations = events.stream()
+                .map(event -> publishPipeline.publish(event.getExchange(), routingKey(event), event.getPayload(),
+                        event.getPartitionKey()))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(confirmations).join();
+        log.debug("Published {} outbox events", events.size());
+    }
+
     private void publishOrderStatus(OrderStatusMessage message, String routingKey) {
         try {
-            rabbitTemplate.convertAndSend(
+            publishPipeline.publish(
                     RabbitMQConfig.ORDER_EXCHANGE,
                     routingKey,
                     message
@@ -161,15 +212,22 @@ public class OrderEventPublisher implements OrderEventPublisherInterface {
         }
     }
 
-    private void publishTicketReservation(TicketReservationMessage message, String routingKey) {
+    private void publishTicketReservation(TicketReservationMessage message, String routingKey, String partitionKey) {
         try {
-            rabbitTemplate.convertAndSend(
+            publishPipeline.publish(
                     RabbitMQConfig.TICKET_EXCHANGE,
-                    routingKey,
-                    message
+                    ticketPartitioning.routingKey(routingKey, partitionKey),
+                    message,
+                    partitionKey
             );
         } catch (Exception e) {
             log.error("Failed to publish ticket reservation: {}", e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+
+    private String routingKey(OutboxEvent event) {
+        return event.getPartitionKey() != null
+                ? ticketPartitioning.routingKey(event.getRoutingKey(), event.getPartitionKey())
+                : event.getRoutingKey();
+    }
+}
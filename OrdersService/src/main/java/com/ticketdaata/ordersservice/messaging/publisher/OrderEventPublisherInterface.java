@@ -1,7 +1,11 @@
 package com.ticketdaata.ordersservice.messaging.publisher;
 
+import com.ticketdaata.ordersservice.entity.OutboxEvent;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
 public interface OrderEventPublisherInterface {
     void publishOrderCreated(String orderId, String ticketId, String userId, BigDecimal totalAmount);
@@ -9,7 +13,16 @@ public interface OrderEventPublisherInterface {
     void publishOrderCancelled(String orderId, String ticketId, String userId, String reason);
     void publishOrderExpired(String orderId, String ticketId, String userId);
     void publishTicketReservationRequest(String ticketId, String orderId, String userId, Long version);
+    void publishTicketBlockReservationRequest(Map<String, Long> ticketVersions, String orderId, String userId);
     void publishTicketReleaseRequest(String ticketId, String orderId, String userId, String reason);
     void publishTicketSoldRequest(String ticketId, String orderId, String userId);
     void scheduleOrderExpiration(String orderId, String ticketId, String userId, LocalDateTime expirationTime);
+    void cancelOrderExpiration(String orderId);
+
+    /**
+     * Publishes outbox events in order and returns once the broker has accepted all of them.
+     *
+     * @throws RuntimeException if any event could not be published; the caller keeps the batch and retries
+     */
+    void publishOutboxEvents(List<OutboxEvent> events);
 }
\ No newline at end of file
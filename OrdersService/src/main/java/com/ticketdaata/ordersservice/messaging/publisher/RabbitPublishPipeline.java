@@ -0,0 +1,376 @@
+package com.ticketdaata.ordersservice.messaging.publisher;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishing pipeline behind the RabbitMQ event publishers. Messages go into a bounded local outbox;
+ * a sender thread takes them out in batches, waiting up to the linger window for a batch to fill, and
+ * publishes each batch on a single channel with correlated publisher confirms. A nack, a confirm that
+ * does not arrive within the confirm timeout or a failed send puts the message back in the outbox
+ * after a backoff, until its attempts are used up.
+ * <p>
+ * Messages published with an ordering key (the ticket partition key) are sent one at a time per key: the
+ * next one is held back until the broker has confirmed, or the pipeline has given up on, the one before it.
+ * A failed message is retried in place, so a RELEASE never overtakes the RESERVE sent before it.
+ * Messages without a key are pipelined freely, and a retried one may overtake newer ones.
+ * <p>
+ * Metrics: the {@code messaging.publish.sent}, {@code .confirmed}, {@code .nacked}, {@code .returned},
+ * {@code .retried} and {@code .dropped} counters, the {@code messaging.publish.confirm.latency} timer
+ * and the {@code messaging.publish.outbox.size} and {@code .inflight} gauges.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "messaging.mode", havingValue = "rabbitmq")
+public class RabbitPublishPipeline {
+
+    private static final long IDLE_POLL_MS = 100;
+
+    private final RabbitTemplate rabbitTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, OutboundMessage> inFlight = new ConcurrentHashMap<>();
+    // Per ordering key: the message being sent (head) and the ones held back behind it
+    private final Map<String, ArrayDeque<OutboundMessage>> keyed = new HashMap<>();
+    // Released heads that did not fit back into the outbox
+    private final Queue<OutboundMessage> overflow = new ConcurrentLinkedQueue<>();
+
+    @Value("${messaging.rabbitmq.publisher.outbox-capacity:10000}")
+    private int outboxCapacity;
+
+    @Value("${messaging.rabbitmq.publisher.batch-size:100}")
+    private int batchSize;
+
+    @Value("${messaging.rabbitmq.publisher.linger-ms:5}")
+    private long lingerMs;
+
+    @Value("${messaging.rabbitmq.publisher.enqueue-timeout-ms:1000}")
+    private long enqueueTimeoutMs;
+
+    @Value("${messaging.rabbitmq.publisher.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+
+    @Value("${messaging.rabbitmq.publisher.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${messaging.rabbitmq.publisher.initial-backoff-ms:200}")
+    private long initialBackoffMs;
+
+    @Value("${messaging.rabbitmq.publisher.max-backoff-ms:10000}")
+    private long maxBackoffMs;
+
+    private ArrayBlockingQueue<OutboundMessage> outbox;
+    private ScheduledExecutorService retryExecutor;
+    private Thread sender;
+    private volatile boolean running = true;
+
+    private Counter sent;
+    private Counter confirmed;
+    private Counter nacked;
+    private Counter returned;
+    private Counter retried;
+    private Counter dropped;
+    private Timer confirmLatency;
+
+    @PostConstruct
+    public void start() {
+        outbox = new ArrayBlockingQueue<>(outboxCapacity);
+        sent = meterRegistry.counter("messaging.publish.sent");
+        confirmed = meterRegistry.counter("messaging.publish.confirmed");
+        nacked = meterRegistry.counter("messaging.publish.nacked");
+        returned = meterRegistry.counter("messaging.publish.returned");
+        retried = meterRegistry.counter("messaging.publish.retried");
+        dropped = meterRegistry.counter("messaging.publish.dropped");
+        confirmLatency = Timer.builder("messaging.publish.confirm.latency")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("messaging.publish.outbox.size", outbox, ArrayBlockingQueue::size).register(meterRegistry);
+        Gauge.builder("messaging.publish.inflight", inFlight, Map::size).register(meterRegistry);
+
+        retryExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rabbit-publish-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sender = new Thread(this::sendLoop, "rabbit-publisher");
+        sender.setDaemon(true);
+        sender.start();
+        log.info("RabbitMQ publish pipeline started: batch size {}, linger {}ms, outbox capacity {}",
+                batchSize, lingerMs, outboxCapacity);
+    }
+
+    /**
+     * Queues a message for publishing, blocking up to the enqueue timeout while the outbox is full.
+     *
+     * @return completes when the broker confirms the message, or exceptionally once it is given up on
+     * @throws IllegalStateException if the outbox stayed full for the whole timeout
+     */
+    public CompletableFuture<Void> publish(String exchange, String routingKey, Object message) {
+        return publish(exchange, routingKey, message, null);
+    }
+
+    /**
+     * Like {@link #publish(String, String, Object)}, but sent only after every earlier message with the
+     * same {@code orderingKey} is confirmed or given up on.
+     */
+    public CompletableFuture<Void> publish(String exchange, String routingKey, Object message, String orderingKey) {
+        OutboundMessage outbound = new OutboundMessage(exchange, routingKey, message, orderingKey);
+        try {
+            if (!outbox.offer(outbound, enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                dropped.increment();
+                throw new IllegalStateException("RabbitMQ publish outbox is full");
+            }
+            return outbound.confirmation;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing message for RabbitMQ", e);
+        }
+    }
+
+    /**
+     * Stops taking new batches once the outbox is drained and waits for outstanding confirms.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        sender.join(confirmTimeoutMs * 2);
+        retryExecutor.shutdownNow();
+        if (!outbox.isEmpty() || !inFlight.isEmpty()) {
+            log.warn("RabbitMQ publish pipeline stopped with {} queued and {} unconfirmed messages",
+                    outbox.size(), inFlight.size());
+        }
+    }
+
+    private void sendLoop() {
+        List<OutboundMessage> batch = new ArrayList<>(batchSize);
+        long lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        while (running || !outbox.isEmpty() || !inFlight.isEmpty() || hasKeyedMessages()) {
+            try {
+                OutboundMessage first = overflow.poll();
+                if (first == null) {
+                    first = outbox.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                }
+                if (first != null) {
+                    batch.add(first);
+                    long deadline = System.nanoTime() + lingerNanos;
+                    while (batch.size() < batchSize) {
+                        outbox.drainTo(batch, batchSize - batch.size());
+                        long remaining = deadline - System.nanoTime();
+                        if (batch.size() >= batchSize || remaining <= 0) {
+                            break;
+                        }
+                        OutboundMessage next = outbox.poll(remaining, TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                    batch.removeIf(message -> !admit(message));
+                    if (!batch.isEmpty()) {
+                        send(batch);
+                    }
+                    batch.clear();
+                }
+                expireUnconfirmed();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return true if the message may be sent now, false if it is held behind an earlier one with its key
+     */
+    private boolean admit(OutboundMessage message) {
+        if (message.orderingKey == null || message.admitted) {
+            return true;
+        }
+        synchronized (keyed) {
+            ArrayDeque<OutboundMessage> queue = keyed.computeIfAbsent(message.orderingKey, key -> new ArrayDeque<>());
+            queue.addLast(message);
+            message.admitted = queue.size() == 1;
+            return message.admitted;
+        }
+    }
+
+    /**
+     * Called once a keyed message is confirmed or dropped: lets the next message with its key go.
+     */
+    private void releaseNext(OutboundMessage message) {
+        if (message.orderingKey == null) {
+            return;
+        }
+        OutboundMessage next;
+        synchronized (keyed) {
+            ArrayDeque<OutboundMessage> queue = keyed.get(message.orderingKey);
+            if (queue == null || queue.peekFirst() != message) {
+                return;
+            }
+            queue.pollFirst();
+            next = queue.peekFirst();
+            if (next == null) {
+                keyed.remove(message.orderingKey);
+                return;
+            }
+            next.admitted = true;
+        }
+        requeue(next);
+    }
+
+    private void requeue(OutboundMessage message) {
+        if (!outbox.offer(message)) {
+            overflow.add(message);
+        }
+    }
+
+    private boolean hasKeyedMessages() {
+        synchronized (keyed) {
+            return !keyed.isEmpty();
+        }
+    }
+
+    private void send(List<OutboundMessage> batch) {
+        for (OutboundMessage message : batch) {
+            message.correlation = new CorrelationData(UUID.randomUUID().toString());
+            message.sentAtNanos = System.nanoTime();
+            inFlight.put(message.correlation.getId(), message);
+            message.correlation.getFuture().whenComplete((confirm, error) -> {
+                if (error != null) {
+                    onNack(message, error.getMessage());
+                } else if (confirm.isAck()) {
+                    onAck(message);
+                } else {
+                    onNack(message, confirm.getReason());
+                }
+            });
+        }
+        try {
+            rabbitTemplate.invoke(operations -> {
+                for (OutboundMessage message : batch) {
+                    operations.convertAndSend(message.exchange, message.routingKey, message.payload, message.correlation);
+                    sent.increment();
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Failed to publish batch of {} messages: {}", batch.size(), e.getMessage());
+            for (OutboundMessage message : batch) {
+                if (inFlight.remove(message.correlation.getId()) != null) {
+                    retry(message, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void onAck(OutboundMessage message) {
+        if (inFlight.remove(message.correlation.getId()) == null) {
+            return;
+        }
+        confirmLatency.record(System.nanoTime() - message.sentAtNanos, TimeUnit.NANOSECONDS);
+        confirmed.increment();
+        if (message.correlation.getReturned() != null) {
+            // Confirmed but unroutable: retrying cannot help, the topology is missing a binding
+            returned.increment();
+            log.warn("Message to exchange '{}' with routing key '{}' was returned unroutable: {}",
+                    message.exchange, message.routingKey, message.correlation.getReturned().getReplyText());
+        }
+        message.confirmation.complete(null);
+        releaseNext(message);
+    }
+
+    private void onNack(OutboundMessage message, String reason) {
+        if (inFlight.remove(message.correlation.getId()) == null) {
+            return;
+        }
+        nacked.increment();
+        retry(message, reason);
+    }
+
+    private void expireUnconfirmed() {
+        long cutoff = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMs);
+        for (OutboundMessage message : inFlight.values()) {
+            if (message.sentAtNanos < cutoff && inFlight.remove(message.correlation.getId(), message)) {
+                retry(message, "no confirm within " + confirmTimeoutMs + "ms");
+            }
+        }
+    }
+
+    private void retry(OutboundMessage message, String reason) {
+        message.attempts++;
+        if (message.attempts >= maxAttempts) {
+            drop(message, "gave up after " + message.attempts + " attempts: " + reason);
+            return;
+        }
+        retried.increment();
+        long delayMs = Math.min(initialBackoffMs << (message.attempts - 1), maxBackoffMs);
+        log.warn("Publish attempt {}/{} to exchange '{}' failed, retrying in {}ms: {}",
+                message.attempts, maxAttempts, message.exchange, delayMs, reason);
+        try {
+            retryExecutor.schedule(() -> {
+                if (message.admitted) {
+                    // Still the head of its key, so the messages held behind it keep waiting
+                    requeue(message);
+                } else if (!outbox.offer(message)) {
+                    drop(message, "outbox is full");
+                }
+            }, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            drop(message, e.getMessage());
+        }
+    }
+
+    private void drop(OutboundMessage message, String reason) {
+        dropped.increment();
+        log.error("Dropping message to exchange '{}' with routing key '{}': {}",
+                message.exchange, message.routingKey, reason);
+        message.confirmation.completeExceptionally(new IllegalStateException(reason));
+        releaseNext(message);
+    }
+
+    private static final class OutboundMessage {
+        private final String exchange;
+        private final String routingKey;
+        private final Object payload;
+        private final String orderingKey;
+        private final CompletableFuture<Void> confirmation = new CompletableFuture<>();
+        private int attempts;
+        // Head of its ordering key, allowed to be sent
+        private volatile boolean admitted;
+        private volatile CorrelationData correlation;
+        private volatile long sentAtNanos;
+
+        private OutboundMessage(String exchange, String routingKey, Object payload, String orderingKey) {
+            this.exchange = exchange;
+            this.routingKey = routingKey;
+            this.payload = payload;
+            this.orderingKey = orderingKey;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.ticketdaata.ordersservice.outbox;
+
+import com.ticketdaata.ordersservice.entity.Order;
+import com.ticketdaata.ordersservice.entity.OutboxEvent;
+import com.ticketdaata.ordersservice.messaging.config.RabbitMQConfig;
+import com.ticketdaata.ordersservice.messaging.dto.OrderStatusMessage;
+import com.ticketdaata.ordersservice.messaging.dto.TicketReservationMessage;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Builds the outbox events for order state changes. The messages match what the event publishers
+ * send directly, plus the event id as their message id.
+ */
+public final class OutboxEvents {
+
+    private OutboxEvents() {
+    }
+
+    public static OutboxEvent ticketReservation(Order order, String ticketId, Long version) {
+        String eventId = newEventId();
+        return ticketEvent(order, eventId, RabbitMQConfig.TICKET_RESERVE_ROUTING_KEY, TicketReservationMessage.builder()
+                .messageId(eventId)
+                .ticketId(ticketId)
+                .orderId(order.getId())
+                .userId(order.getUserId())
+                .version(version)
+                .eventType("RESERVE_TICKET")
+                .timestamp(LocalDateTime.now())
+                .build());
+    }
+
+    public static OutboxEvent ticketBlockReservation(Order order, Map<String, Long> ticketVersions) {
+        String eventId = newEventId();
+        return ticketEvent(order, eventId, RabbitMQConfig.TICKET_RESERVE_ROUTING_KEY, TicketReservationMessage.builder()
+                .messageId(eventId)
+                .orderId(order.getId())
+                .userId(order.getUserId())
+                .ticketVersions(ticketVersions)
+                .eventType("RESERVE_TICKETS")
+                .timestamp(LocalDateTime.now())
+                .build());
+    }
+
+    public static OutboxEvent ticketRelease(Order order, String ticketId, String reason) {
+        String eventId = newEventId();
+        return ticketEvent(order, eventId, RabbitMQConfig.TICKET_RELEASE_ROUTING_KEY, TicketReservationMessage.builder()
+                .messageId(eventId)
+                .ticketId(ticketId)
+                .orderId(order.getId())
+                .userId(order.getUserId())
+                .eventType("RELEASE_TICKET")
+                .timestamp(LocalDateTime.now())
+                .reason(reason)
+                .build());
+    }
+
+    public static OutboxEvent ticketSold(Order order, String ticketId) {
+        String eventId = newEventId();
+        return ticketEvent(order, eventId, RabbitMQConfig.TICKET_SOLD_ROUTING_KEY, TicketReservationMessage.builder()
+                .messageId(eventId)
+                .ticketId(ticketId)
+                .orderId(order.getId())
+                .userId(order.getUserId())
+                .eventType("MARK_SOLD")
+                .timestamp(LocalDateTime.now())
+                .build());
+    }
+
+    public static OutboxEvent orderCreated(Order order) {
+        return orderEvent(order, "NONE", "ORDER_CREATED", RabbitMQConfig.ORDER_CREATED_ROUTING_KEY, null);
+    }
+
+    public static OutboxEvent orderCompleted(Order order) {
+        return orderEvent(order, "PENDING", "ORDER_COMPLETED", RabbitMQConfig.ORDER_COMPLETED_ROUTING_KEY, null);
+    }
+
+    public static OutboxEvent orderCancelled(Order order, String reason) {
+        return orderEvent(order, "PENDING", "ORDER_CANCELLED", RabbitMQConfig.ORDER_CANCELLED_ROUTING_KEY, reason);
+    }
+
+    public static OutboxEvent orderExpired(Order order) {
+        return orderEvent(order, "PENDING", "ORDER_EXPIRED", RabbitMQConfig.ORDER_EXPIRED_ROUTING_KEY, null);
+    }
+
+    private static OutboxEvent orderEvent(Order order, String previousStatus, String eventType,
+                                          String routingKey, String reason) {
+        String eventId = newEventId();
+        OrderStatusMessage message = OrderStatusMessage.builder()
+                .messageId(eventId)
+                .orderId(order.getId())
+                .ticketId(order.getTicketId())
+                .userId(order.getUserId())
+                .status(order.getStatus().name())
+                .previousStatus(previousStatus)
+                .totalAmount(order.getTotalAmount())
+                .timestamp(LocalDateTime.now())
+                .eventType(eventType)
+                .reason(reason)
+                .build();
+        return event(eventId, RabbitMQConfig.ORDER_EXCHANGE, routingKey, null, message);
+    }
+
+    // Keyed by the order's first ticket rather than the ticket each event is about: a seat block is reserved
+    // in one message, and the per-ticket releases and sales after it must stay behind it on its partition
+    private static OutboxEvent ticketEvent(Order order, String eventId, String routingKey,
+                                           TicketReservationMessage message) {
+        return event(eventId, RabbitMQConfig.TICKET_EXCHANGE, routingKey, order.getTicketId(), message);
+    }
+
+    private static OutboxEvent event(String eventId, String exchange, String routingKey, String partitionKey,
+                                     Object payload) {
+        return OutboxEvent.builder()
+                .eventId(eventId)
+                .exchange(exchange)
+                .routingKey(routingKey)
+                .partitionKey(partitionKey)
+                .payload(payload)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static String newEventId() {
+        return UUID.randomUUID().toString();
+    }
+}
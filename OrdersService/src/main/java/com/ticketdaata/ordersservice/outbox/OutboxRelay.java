@@ -0,0 +1,121 @@
+package com.ticketdaata.ordersservice.outbox;
+
+import com.ticketdaata.ordersservice.entity.Order;
+import com.ticketdaata.ordersservice.entity.OutboxEvent;
+import com.ticketdaata.ordersservice.expiration.ExpiryLeaseManager;
+import com.ticketdaata.ordersservice.messaging.publisher.OrderEventPublisherInterface;
+import com.ticketdaata.ordersservice.repository.OrderRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the events that {@code OrderService} writes into order outboxes. Polls the
+ * {@code outboxSince} index for orders with pending events, publishes them as one ordered batch (oldest
+ * pending order first, each order's events in the order they were written) and removes them from their
+ * outboxes once the broker has accepted the batch.
+ * <p>
+ * Only orders in the expiry partitions leased by this replica are relayed, so each order's events go out
+ * from a single replica. A crash between publishing and removing republishes the batch; the message id
+ * of each event lets consumers drop the repeat.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxRelay {
+
+    private final OrderRepository orderRepository;
+    private final OrderEventPublisherInterface orderEventPublisher;
+    private final ExpiryLeaseManager expiryLeaseManager;
+    private final Semaphore wakeUps = new Semaphore(0);
+
+    @Value("${orders.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${orders.outbox.poll-interval-ms:500}")
+    private long pollIntervalMs;
+
+    private volatile boolean running = true;
+    private Thread relay;
+
+    @PostConstruct
+    public void start() {
+        relay = new Thread(this::relayLoop, "outbox-relay");
+        relay.setDaemon(true);
+        relay.start();
+    }
+
+    /**
+     * Signals that events were just written, so they go out without waiting for the next poll.
+     */
+    public void wakeUp() {
+        if (wakeUps.availablePermits() == 0) {
+            wakeUps.release();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        relay.interrupt();
+    }
+
+    private void relayLoop() {
+        while (running) {
+            try {
+                wakeUps.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                wakeUps.drainPermits();
+                while (running && relayBatch() == batchSize) {
+                    // A full page means more orders may be waiting
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Outbox relay failed, retrying on next poll: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    // Publishes one page of pending outboxes and returns the number of orders it covered
+    private int relayBatch() {
+        List<Integer> partitions = expiryLeaseManager.ownedPartitionKeys();
+        if (partitions.isEmpty()) {
+            return 0;
+        }
+
+        List<Order> orders = orderRepository.findOutboxPage(partitions, batchSize);
+        if (orders.isEmpty()) {
+            return 0;
+        }
+
+        List<OutboxEvent> events = new ArrayList<>();
+        Map<String, List<String>> eventIdsByOrder = new LinkedHashMap<>();
+        for (Order order : orders) {
+            List<OutboxEvent> outbox = order.getOutbox() != null ? order.getOutbox() : List.of();
+            List<String> eventIds = new ArrayList<>(outbox.size());
+            for (OutboxEvent event : outbox) {
+                events.add(event);
+                eventIds.add(event.getEventId());
+            }
+            eventIdsByOrder.put(order.getId(), eventIds);
+        }
+
+        if (!events.isEmpty()) {
+            orderEventPublisher.publishOutboxEvents(events);
+        }
+        orderRepository.removeDispatched(eventIdsByOrder);
+        log.debug("Relayed {} outbox events of {} orders", events.size(), eventIdsByOrder.size());
+        return orders.size();
+    }
+}
@@ -0,0 +1,182 @@
+package com.ticketdaata.ordersservice.replica;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketdaata.ordersservice.Client.TicketServiceClient;
+import com.ticketdaata.ordersservice.dto.TicketResponse;
+import com.ticketdaata.ordersservice.messaging.dto.TicketSnapshotMessage;
+import feign.Response;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local, eventually consistent copy of the Ticket Service's tickets, so order creation does not wait on
+ * an HTTP call per ticket. Seeded once at startup from the Ticket Service's NDJSON snapshot and kept
+ * current by TICKET_CHANGED / TICKET_DELETED events; both may arrive in any order because an entry is
+ * only replaced by a higher version. A deletion leaves a tombstone with the ticket's last version, so a
+ * late change, snapshot line or fallback answer for the deleted ticket does not bring it back; tombstones
+ * are dropped after {@code orders.ticket-replica.tombstone-retention-minutes}. A miss falls back to the
+ * Ticket Service and caches the answer.
+ * <p>
+ * The copy can be behind, so it only pre-validates: the reservation the Ticket Service makes with the
+ * ticket's version stays the authority, and a stale read ends in a failed reservation, not a double sale.
+ * <p>
+ * Metrics: the {@code orders.ticket.replica.hits} and {@code .misses} counters and the
+ * {@code orders.ticket.replica.size} gauge, which counts tombstones too.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TicketReplica {
+
+    private final TicketServiceClient ticketServiceClient;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Entry> tickets = new ConcurrentHashMap<>();
+
+    @Value("${orders.ticket-replica.enabled:true}")
+    private boolean enabled;
+
+    @Value("${orders.ticket-replica.seed-on-startup:true}")
+    private boolean seedOnStartup;
+
+    @Value("${orders.ticket-replica.tombstone-retention-minutes:60}")
+    private long tombstoneRetentionMinutes;
+
+    private Counter hits;
+    private Counter misses;
+
+    @PostConstruct
+    public void registerMetrics() {
+        hits = meterRegistry.counter("orders.ticket.replica.hits");
+        misses = meterRegistry.counter("orders.ticket.replica.misses");
+        Gauge.builder("orders.ticket.replica.size", tickets, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * @return the replicated ticket, or the Ticket Service's answer when this replica does not hold it
+     */
+    public TicketResponse get(String ticketId) {
+        if (enabled) {
+            Entry entry = tickets.get(ticketId);
+            if (entry != null && entry.ticket() != null) {
+                hits.increment();
+                return entry.ticket();
+            }
+        }
+        misses.increment();
+        TicketResponse ticket = ticketServiceClient.getTicket(ticketId).getBody();
+        if (ticket != null && enabled) {
+            apply(ticket);
+        }
+        return ticket;
+    }
+
+    public void handleTicketSnapshot(TicketSnapshotMessage message) {
+        if (!enabled) {
+            return;
+        }
+        switch (message.getEventType()) {
+            case "TICKET_CHANGED":
+                apply(message.getTicket());
+                break;
+            case "TICKET_DELETED":
+                tickets.merge(message.getTicketId(), Entry.tombstone(versionOf(message.getVersion())),
+                        (current, tombstone) -> current.version() <= tombstone.version() ? tombstone : current);
+                break;
+            default:
+                log.warn("Unknown ticket snapshot event type: {}", message.getEventType());
+        }
+    }
+
+    /**
+     * Loads every ticket from the Ticket Service in the background. Events received meanwhile are applied
+     * as usual; whichever copy of a ticket has the higher version wins.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        if (!enabled || !seedOnStartup) {
+            return;
+        }
+        Thread seeder = new Thread(this::loadSnapshot, "ticket-replica-seed");
+        seeder.setDaemon(true);
+        seeder.start();
+    }
+
+    private void loadSnapshot() {
+        long started = System.nanoTime();
+        try (Response response = ticketServiceClient.streamSnapshot()) {
+            if (response.status() != 200 || response.body() == null) {
+                log.warn("Ticket snapshot unavailable (HTTP {}), the replica fills from events and misses", response.status());
+                return;
+            }
+            int loaded = load(response);
+            log.info("Seeded ticket replica with {} tickets in {}ms", loaded, (System.nanoTime() - started) / 1_000_000);
+        } catch (Exception e) {
+            // Not fatal: misses keep falling back to the Ticket Service and events fill the replica over time
+            log.warn("Failed to seed ticket replica: {}", e.getMessage());
+        }
+    }
+
+    private int load(Response response) throws IOException {
+        int loaded = 0;
+        try (InputStream body = response.body().asInputStream();
+             MappingIterator<TicketResponse> snapshot = objectMapper.readerFor(TicketResponse.class).readValues(body)) {
+            while (snapshot.hasNext()) {
+                apply(snapshot.next());
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Drops tombstones old enough that no delayed event or snapshot line for their ticket is still expected.
+     */
+    @Scheduled(fixedDelayString = "#{${orders.ticket-replica.tombstone-retention-minutes:60} * 60000}")
+    public void purgeTombstones() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(tombstoneRetentionMinutes);
+        tickets.values().removeIf(entry -> entry.ticket() == null && entry.deletedAt() < cutoff);
+    }
+
+    // A live copy replaces an older or equal one, but a tombstone only gives way to a newer version
+    private void apply(TicketResponse ticket) {
+        tickets.merge(ticket.getId(), Entry.live(ticket), (current, incoming) -> {
+            boolean newer = current.ticket() != null
+                    ? incoming.version() >= current.version()
+                    : incoming.version() > current.version();
+            return newer ? incoming : current;
+        });
+    }
+
+    private static long versionOf(Long version) {
+        return version != null ? version : -1;
+    }
+
+    // A replicated ticket, or a tombstone (no ticket) holding the version the ticket was deleted at
+    private record Entry(TicketResponse ticket, long version, long deletedAt) {
+
+        static Entry live(TicketResponse ticket) {
+            return new Entry(ticket, versionOf(ticket.getVersion()), 0);
+        }
+
+        static Entry tombstone(long version) {
+            return new Entry(null, version, System.currentTimeMillis());
+        }
+    }
+}
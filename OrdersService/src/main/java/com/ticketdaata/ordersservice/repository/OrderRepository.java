@@ -5,10 +5,12 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface OrderRepository extends MongoRepository<Order, String> {
+public interface OrderRepository extends MongoRepository<Order, String>, OrderRepositoryCustom {
 
     // Find orders by user ID
     List<Order> findByUserIdOrderByCreatedAtDesc(String userId);
@@ -16,6 +18,10 @@ public interface OrderRepository extends MongoRepository<Order, String> {
     // Find orders by status
     List<Order> findByStatus(Order.OrderStatus status);
 
+    // Stream pending orders of the given expiry partitions off the Mongo cursor (caller closes)
+    @Query("{'status': 'PENDING', 'expiryPartition': {'$in': ?0}}")
+    Stream<Order> streamPendingByPartitions(Collection<Integer> partitions);
+
     // Find orders by user and status
     List<Order> findByUserIdAndStatus(String userId, Order.OrderStatus status);
 
@@ -29,6 +35,9 @@ public interface OrderRepository extends MongoRepository<Order, String> {
     @Query("{'status': 'PENDING', 'expiresAt': {'$lt': ?0}}")
     List<Order> findExpiredPendingOrders(LocalDateTime currentTime);
 
+    // Find the orders claimed by one batch expiry run
+    List<Order> findByExpiryBatchId(String expiryBatchId);
+
     // Find orders expiring soon (for notifications)
     @Query("{'status': 'PENDING', 'expiresAt': {'$gte': ?0, '$lt': ?1}}")
     List<Order> findOrdersExpiringSoon(LocalDateTime from, LocalDateTime to);
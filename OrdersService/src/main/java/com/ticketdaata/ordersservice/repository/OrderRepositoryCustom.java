@@ -0,0 +1,78 @@
+package com.ticketdaata.ordersservice.repository;
+
+import com.ticketdaata.ordersservice.entity.Order;
+import com.ticketdaata.ordersservice.entity.OutboxEvent;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface OrderRepositoryCustom {
+
+    /**
+     * Keyset page over (expiresAt, id) of PENDING orders in the given expiry partitions that expired
+     * before {@code now}. Only id and expiresAt are loaded.
+     */
+    List<Order> findExpiredPendingPage(Collection<Integer> partitions, LocalDateTime now,
+                                       LocalDateTime afterExpiresAt, String afterId, int limit);
+
+    /**
+     * Moves every still-PENDING, already expired order in {@code eventsByOrder} to EXPIRED in one bulk
+     * write. Each update appends that order's events to its outbox and tags it with {@code batchId}, so
+     * the caller can load exactly the orders it claimed.
+     *
+     * @return number of orders claimed
+     */
+    long claimExpired(Map<String, List<OutboxEvent>> eventsByOrder, LocalDateTime now, String batchId);
+
+    /**
+     * Orders in the given expiry partitions that have unpublished outbox events, oldest pending event
+     * first. Only id and the outbox are loaded.
+     */
+    List<Order> findOutboxPage(Collection<Integer> partitions, int limit);
+
+    /**
+     * Removes published events from their orders' outboxes in one bulk write, dropping the outbox
+     * fields of orders left with none. Events added after they were read are kept.
+     */
+    void removeDispatched(Map<String, List<String>> eventIdsByOrder);
+
+    /**
+     * Moves a still-PENDING, unexpired order to COMPLETED and appends {@code events} to its outbox, in one
+     * conditional update.
+     *
+     * @return the updated order, or null if the order is gone, no longer pending or expired
+     */
+    Order completePending(String orderId, String paymentId, List<OutboxEvent> events);
+
+    /**
+     * Moves a still-PENDING order to CANCELLED and appends {@code events} to its outbox, in one conditional
+     * update. A null {@code reservationStatus} leaves the order's reservation status as it is.
+     *
+     * @return the updated order, or null if the order is gone or no longer pending
+     */
+    Order cancelPending(String orderId, String reason, Order.ReservationStatus reservationStatus,
+                        List<OutboxEvent> events);
+
+    /**
+     * Records that the Ticket Service reserved {@code ticketId} for a still-PENDING order.
+     *
+     * @return the updated order, or null if the order is no longer pending
+     */
+    Order holdSeat(String orderId, String ticketId);
+
+    /**
+     * Moves a PENDING order whose reservation was requested to HELD.
+     *
+     * @return whether the order changed
+     */
+    boolean markReservationHeld(String orderId);
+
+    /**
+     * Flags a COMPLETED order whose reservation was still REQUESTED as FAILED: it was sold without a hold.
+     *
+     * @return whether the order changed
+     */
+    boolean markCompletedReservationFailed(String orderId);
+}
@@ -0,0 +1,150 @@
+package com.ticketdaata.ordersservice.repository;
+
+import com.ticketdaata.ordersservice.entity.Order;
+import com.ticketdaata.ordersservice.entity.OutboxEvent;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+
+    private static final Sort EXPIRY_ORDER = Sort.by(Sort.Order.asc("expiresAt"), Sort.Order.asc("_id"));
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Order> findExpiredPendingPage(Collection<Integer> partitions, LocalDateTime now,
+                                              LocalDateTime afterExpiresAt, String afterId, int limit) {
+        Criteria criteria = Criteria.where("status").is(Order.OrderStatus.PENDING)
+                .and("expiryPartition").in(partitions);
+        if (afterExpiresAt != null) {
+            criteria = criteria.and("expiresAt").lt(now).orOperator(
+                    Criteria.where("expiresAt").gt(afterExpiresAt),
+                    Criteria.where("expiresAt").is(afterExpiresAt).and("_id").gt(afterId));
+        } else {
+            criteria = criteria.and("expiresAt").lt(now);
+        }
+
+        Query query = Query.query(criteria).with(EXPIRY_ORDER).limit(limit);
+        query.fields().include("_id", "expiresAt");
+        return mongoTemplate.find(query, Order.class);
+    }
+
+    @Override
+    public long claimExpired(Map<String, List<OutboxEvent>> eventsByOrder, LocalDateTime now, String batchId) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class);
+        eventsByOrder.forEach((orderId, events) -> {
+            Query query = Query.query(Criteria.where("_id").is(orderId)
+                    .and("status").is(Order.OrderStatus.PENDING)
+                    .and("expiresAt").lt(now));
+            Update update = new Update()
+                    .set("status", Order.OrderStatus.EXPIRED)
+                    .set("updatedAt", now)
+                    .set("expiryBatchId", batchId)
+                    .min("outboxSince", events.get(0).getCreatedAt());
+            update.push("outbox").each(events.toArray());
+            bulk.updateOne(query, update);
+        });
+        return bulk.execute().getModifiedCount();
+    }
+
+    @Override
+    public List<Order> findOutboxPage(Collection<Integer> partitions, int limit) {
+        Query query = Query.query(Criteria.where("outboxSince").exists(true)
+                        .and("expiryPartition").in(partitions))
+                .with(Sort.by(Sort.Order.asc("outboxSince")))
+                .limit(limit);
+        query.fields().include("_id", "outbox");
+        return mongoTemplate.find(query, Order.class);
+    }
+
+    @Override
+    public void removeDispatched(Map<String, List<String>> eventIdsByOrder) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Order.class);
+        eventIdsByOrder.forEach((orderId, eventIds) -> {
+            bulk.updateOne(Query.query(Criteria.where("_id").is(orderId)),
+                    new Update().pull("outbox", new Document("eventId", new Document("$in", eventIds))));
+            bulk.updateOne(Query.query(Criteria.where("_id").is(orderId).orOperator(
+                            Criteria.where("outbox").size(0), Criteria.where("outbox").exists(false))),
+                    new Update().unset("outbox").unset("outboxSince"));
+        });
+        bulk.execute();
+    }
+
+    @Override
+    public Order completePending(String orderId, String paymentId, List<OutboxEvent> events) {
+        LocalDateTime now = LocalDateTime.now();
+        Query query = Query.query(Criteria.where("_id").is(orderId)
+                .and("status").is(Order.OrderStatus.PENDING)
+                .and("expiresAt").gt(now));
+        Update update = new Update()
+                .set("status", Order.OrderStatus.COMPLETED)
+                .set("paymentId", paymentId)
+                .set("updatedAt", now);
+        return modifyWithEvents(query, update, events);
+    }
+
+    @Override
+    public Order cancelPending(String orderId, String reason, Order.ReservationStatus reservationStatus,
+                               List<OutboxEvent> events) {
+        Query query = Query.query(Criteria.where("_id").is(orderId)
+                .and("status").is(Order.OrderStatus.PENDING));
+        Update update = new Update()
+                .set("status", Order.OrderStatus.CANCELLED)
+                .set("cancellationReason", reason)
+                .set("updatedAt", LocalDateTime.now());
+        if (reservationStatus != null) {
+            update.set("reservationStatus", reservationStatus);
+        }
+        return modifyWithEvents(query, update, events);
+    }
+
+    // The events join the outbox in the same write as the change they describe
+    private Order modifyWithEvents(Query query, Update update, List<OutboxEvent> events) {
+        update.min("outboxSince", events.get(0).getCreatedAt());
+        update.push("outbox").each(events.toArray());
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Order.class);
+    }
+
+    @Override
+    public Order holdSeat(String orderId, String ticketId) {
+        Query query = Query.query(Criteria.where("_id").is(orderId)
+                .and("status").is(Order.OrderStatus.PENDING));
+        Update update = new Update()
+                .addToSet("heldTicketIds", ticketId)
+                .set("updatedAt", LocalDateTime.now());
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Order.class);
+    }
+
+    @Override
+    public boolean markReservationHeld(String orderId) {
+        Query query = Query.query(Criteria.where("_id").is(orderId)
+                .and("status").is(Order.OrderStatus.PENDING)
+                .and("reservationStatus").is(Order.ReservationStatus.REQUESTED));
+        Update update = new Update().set("reservationStatus", Order.ReservationStatus.HELD);
+        return mongoTemplate.updateFirst(query, update, Order.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public boolean markCompletedReservationFailed(String orderId) {
+        Query query = Query.query(Criteria.where("_id").is(orderId)
+                .and("status").is(Order.OrderStatus.COMPLETED)
+                .and("reservationStatus").is(Order.ReservationStatus.REQUESTED));
+        Update update = new Update()
+                .set("reservationStatus", Order.ReservationStatus.FAILED)
+                .set("updatedAt", LocalDateTime.now());
+        return mongoTemplate.updateFirst(query, update, Order.class).getModifiedCount() > 0;
+    }
+}
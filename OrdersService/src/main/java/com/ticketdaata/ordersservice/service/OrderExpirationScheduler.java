@@ -1,7 +1,11 @@
 package com.ticketdaata.ordersservice.service;
 
 import com.ticketdaata.ordersservice.entity.Order;
+import com.ticketdaata.ordersservice.expiration.ExpiryLeaseManager;
+import com.ticketdaata.ordersservice.expiration.OrderExpirationTimer;
 import com.ticketdaata.ordersservice.repository.OrderRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,8 +13,26 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
+/**
+ * Drives order expiration. Deadlines are fired by the in-memory {@link OrderExpirationTimer};
+ * due orders are split into batches and expired through {@link OrderService#expireOrders} on a
+ * bounded worker pool. When the pool is saturated the submitting thread runs the batch itself,
+ * which throttles the timer and the sweep instead of queueing without limit.
+ * <p>
+ * With several replicas, the sweep and the timer rehydration only cover the expiry partitions this
+ * replica leases through {@link ExpiryLeaseManager}. Timer entries for orders created locally still
+ * fire wherever they were scheduled; the claim in {@link OrderService#expireOrders} only moves orders
+ * that are still PENDING, so of all the replicas and requests racing for an order only one changes it.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -18,39 +40,127 @@ public class OrderExpirationScheduler {
 
     private final OrderService orderService;
     private final OrderRepository orderRepository;
+    private final OrderExpirationTimer orderExpirationTimer;
+    private final ExpiryLeaseManager expiryLeaseManager;
 
-    @Value("${orders.reservation.cleanup-interval-minutes:5}")
-    private int cleanupIntervalMinutes;
+    @Value("${orders.expiration.batch-size:500}")
+    private int batchSize;
 
-    // Run every 1 minute to check for expired orders
-    @Scheduled(fixedRate = 60000)
+    @Value("${orders.expiration.worker-threads:4}")
+    private int workerThreads;
+
+    @Value("${orders.expiration.queue-capacity:64}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor expiryWorkers;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        expiryWorkers = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "order-expiry-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        orderExpirationTimer.onExpiration(this::expireAsync);
+        expiryLeaseManager.onAcquired(partition -> expiryWorkers.execute(() -> rehydratePartition(partition)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        expiryWorkers.shutdown();
+    }
+
+    /**
+     * Loads the pending orders of a newly leased partition into the timer, so deadlines survive restarts
+     * and failover. Orders that expired while nobody owned the partition are expired in batches right away.
+     */
+    public void rehydratePartition(int partition) {
+        LocalDateTime now = LocalDateTime.now();
+        AtomicInteger scheduled = new AtomicInteger();
+        List<String> overdue = new ArrayList<>();
+        try (Stream<Order> pendingOrders = orderRepository.streamPendingByPartitions(expiryLeaseManager.partitionKeys(partition))) {
+            pendingOrders.filter(order -> order.getExpiresAt() != null).forEach(order -> {
+                if (order.getExpiresAt().isBefore(now)) {
+                    overdue.add(order.getId());
+                } else {
+                    orderExpirationTimer.schedule(order.getId(), order.getExpiresAt());
+                    scheduled.incrementAndGet();
+                }
+            });
+        } catch (Exception e) {
+            log.error("Failed to rehydrate expiry partition {}: {}", partition, e.getMessage(), e);
+        }
+        log.info("Rehydrated expiry partition {}: {} scheduled, {} overdue", partition, scheduled.get(), overdue.size());
+
+        expireAsync(overdue);
+    }
+
+    /**
+     * Splits the ids into batches and queues them on the expiry pool.
+     */
+    public List<Future<Integer>> expireAsync(List<String> orderIds) {
+        List<Future<Integer>> batches = new ArrayList<>();
+        for (int from = 0; from < orderIds.size(); from += batchSize) {
+            batches.add(submitBatch(orderIds.subList(from, Math.min(from + batchSize, orderIds.size()))));
+        }
+        return batches;
+    }
+
+    // Safety net for orders of leased partitions that the timer missed
+    @Scheduled(fixedRateString = "#{${orders.reservation.cleanup-interval-minutes:5} * 60000}",
+            initialDelayString = "#{${orders.reservation.cleanup-interval-minutes:5} * 60000}")
     public void processExpiredOrders() {
         log.debug("Starting expired orders cleanup process");
 
-        try {
-            List<Order> expiredOrders = orderRepository.findExpiredPendingOrders(LocalDateTime.now());
-
-            log.info("Found {} expired orders to process", expiredOrders.size());
+        List<Integer> partitions = expiryLeaseManager.ownedPartitionKeys();
+        if (partitions.isEmpty()) {
+            return;
+        }
 
-            for (Order order : expiredOrders) {
-                try {
-                    orderService.expireOrder(order.getId());
-                } catch (Exception e) {
-                    log.error("Failed to expire order {}: {}", order.getId(), e.getMessage());
+        LocalDateTime now = LocalDateTime.now();
+        List<Future<Integer>> batches = new ArrayList<>();
+        try {
+            LocalDateTime afterExpiresAt = null;
+            String afterId = null;
+            List<Order> page;
+            do {
+                page = orderRepository.findExpiredPendingPage(partitions, now, afterExpiresAt, afterId, batchSize);
+                if (!page.isEmpty()) {
+                    batches.add(submitBatch(page.stream().map(Order::getId).toList()));
+                    Order last = page.get(page.size() - 1);
+                    afterExpiresAt = last.getExpiresAt();
+                    afterId = last.getId();
                 }
+            } while (page.size() == batchSize);
+
+            int expired = 0;
+            for (Future<Integer> batch : batches) {
+                expired += batch.get();
+            }
+            if (expired > 0) {
+                log.warn("Sweep expired {} orders the timer did not fire", expired);
             }
 
             log.debug("Expired orders cleanup completed successfully");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             log.error("Error during expired orders cleanup: {}", e.getMessage(), e);
         }
     }
 
-    // Optional: Run at startup to clean any orders that expired while service was
-    // down
-    @Scheduled(initialDelay = 30000, fixedDelay = Long.MAX_VALUE) // Run once after 30 seconds
-    public void initialCleanup() {
-        log.info("Performing initial cleanup of expired orders");
-        processExpiredOrders();
+    private Future<Integer> submitBatch(List<String> orderIds) {
+        return expiryWorkers.submit(() -> {
+            try {
+                return orderService.expireOrders(orderIds);
+            } catch (Exception e) {
+                log.error("Failed to expire batch of {} orders: {}", orderIds.size(), e.getMessage());
+                return 0;
+            }
+        });
     }
-}
\ No newline at end of file
+}
@@ -1,19 +1,29 @@
 package com.ticketdaata.ordersservice.service;
 
-import com.ticketdaata.ordersservice.Client.TicketServiceClient;
 import com.ticketdaata.ordersservice.dto.*;
 import com.ticketdaata.ordersservice.entity.Order;
+import com.ticketdaata.ordersservice.entity.OutboxEvent;
+import com.ticketdaata.ordersservice.expiration.ExpiryLeaseManager;
 import com.ticketdaata.ordersservice.messaging.publisher.OrderEventPublisherInterface;
+import com.ticketdaata.ordersservice.outbox.OutboxEvents;
+import com.ticketdaata.ordersservice.outbox.OutboxRelay;
+import com.ticketdaata.ordersservice.replica.TicketReplica;
 import com.ticketdaata.ordersservice.repository.OrderRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -22,56 +32,29 @@ import java.util.stream.Collectors;
 public class OrderService {
 
     private final OrderRepository orderRepository;
-    private final TicketServiceClient ticketServiceClient;
+    private final TicketReplica ticketReplica;
     private final OrderEventPublisherInterface orderEventPublisher;
+    private final ExpiryLeaseManager expiryLeaseManager;
+    private final OutboxRelay outboxRelay;
 
     private static final int ORDER_EXPIRATION_MINUTES = 15;
 
+    @Value("${orders.reservation.require-hold:true}")
+    private boolean requireHold;
+
     @Transactional
     public OrderResponse createOrder(CreateOrderRequest request) {
-        log.info("Creating order for ticket ID: {}", request.getTicketId());
-
-        // 1. Get ticket details from Ticket Service
-        TicketResponse ticket = ticketServiceClient.getTicket(request.getTicketId())
-                .getBody();
-
-        if (ticket == null) {
-            throw new IllegalArgumentException("Ticket not found with ID: " + request.getTicketId());
-        }
-
-        if (!"AVAILABLE".equals(ticket.getStatus())) {
-            throw new IllegalStateException("Ticket is not available for purchase");
-        }
-
-        // 2. Validate ownership - prevent users from buying their own tickets
-        String buyerUserId = request.getUserId();
-        String ticketOwnerUserId = ticket.getUserId();
-
-        if (buyerUserId.equals(ticketOwnerUserId)) {
-            log.warn("Purchase attempt blocked: User {} tried to buy their own ticket {}",
-                    buyerUserId, request.getTicketId());
-            throw new IllegalArgumentException(
-                    "Purchase not allowed: You cannot buy tickets that you listed for sale.");
+        if (request.isSeatBlock()) {
+            return createSeatBlockOrder(request);
         }
 
-        log.info("Ownership validation passed: Buyer {} is different from ticket owner {}",
-                buyerUserId, ticketOwnerUserId);
+        log.info("Creating order for ticket ID: {}", request.getTicketId());
 
-        // 3. Reserve the ticket using messaging instead of direct HTTP call
-        try {
-            orderEventPublisher.publishTicketReservationRequest(
-                    ticket.getId(), 
-                    null, // orderId will be set after creating the order
-                    request.getUserId(), 
-                    ticket.getVersion()
-            );
-        } catch (Exception e) {
-            log.error("Failed to send ticket reservation request {}: {}", ticket.getId(), e.getMessage());
-            throw new IllegalStateException("Unable to reserve ticket. It may have been sold to another buyer.");
-        }
+        // 1-2. Get ticket details from the local ticket replica and validate availability and ownership
+        TicketResponse ticket = fetchPurchasableTicket(request.getTicketId(), request.getUserId());
 
-        // 4. Create the order using ticket details
-        Order order = new Order();
+        // 3. Create the order using ticket details; its id is assigned up front
+        Order order = newOrder();
         order.setUserId(request.getUserId());
         order.setTicketId(request.getTicketId());
         order.setTicketTitle(ticket.getEventName());
@@ -87,39 +70,129 @@ public class OrderService {
         order.setExpirationTime(ORDER_EXPIRATION_MINUTES);
         order.setSellerId(ticket.getSellerId().toString());
         order.setSellerUsername(""); // You'll get this from user service later
+        order.setReservationStatus(Order.ReservationStatus.REQUESTED);
+
+        // 4. One reservation command plus the order created event, saved with the order; the Ticket Service
+        // answers with TICKET_RESERVED (confirmReservation) or TICKET_RESERVATION_FAILED (failReservation)
+        order.addOutboxEvent(OutboxEvents.ticketReservation(order, request.getTicketId(), ticket.getVersion()));
+        order.addOutboxEvent(OutboxEvents.orderCreated(order));
 
         Order savedOrder = orderRepository.save(order);
+        outboxRelay.wakeUp();
         
-        // Now update the reservation request with the actual order ID
-        orderEventPublisher.publishTicketReservationRequest(
-                request.getTicketId(), 
-                savedOrder.getId(), 
-                request.getUserId(), 
-                ticket.getVersion()
-        );
-        
-        // Publish order created event
-        orderEventPublisher.publishOrderCreated(
+        // Schedule order expiration
+        LocalDateTime expirationTime = savedOrder.getCreatedAt().plusMinutes(ORDER_EXPIRATION_MINUTES);
+        orderEventPublisher.scheduleOrderExpiration(
                 savedOrder.getId(),
                 request.getTicketId(),
                 request.getUserId(),
-                savedOrder.getTotalAmount()
+                expirationTime
         );
         
-        // Schedule order expiration
+        log.info("Order created successfully: {}", savedOrder.getId());
+
+        return OrderResponse.fromEntity(savedOrder);
+    }
+
+    /**
+     * Seat-block order: every seat is validated up front, the order is saved once and the whole block
+     * goes to the Ticket Service as a single all-or-nothing reservation message.
+     */
+    private OrderResponse createSeatBlockOrder(CreateOrderRequest request) {
+        List<String> ticketIds = request.getTicketIds().stream().distinct().collect(Collectors.toList());
+        log.info("Creating seat block order for tickets: {}", ticketIds);
+
+        Map<String, Long> ticketVersions = new LinkedHashMap<>();
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        List<String> seatInfos = new ArrayList<>();
+        TicketResponse firstTicket = null;
+        for (String ticketId : ticketIds) {
+            TicketResponse ticket = fetchPurchasableTicket(ticketId, request.getUserId());
+            if (firstTicket == null) {
+                firstTicket = ticket;
+            }
+            ticketVersions.put(ticket.getId(), ticket.getVersion());
+            totalAmount = totalAmount.add(BigDecimal.valueOf(ticket.getPrice()));
+            if (ticket.getSeatInfo() != null) {
+                seatInfos.add(ticket.getSeatInfo());
+            }
+        }
+
+        Order order = newOrder();
+        order.setUserId(request.getUserId());
+        order.setTicketId(firstTicket.getId());
+        order.setTicketIds(ticketIds);
+        order.setTicketTitle(firstTicket.getEventName());
+        order.setEventName(firstTicket.getEventName());
+        order.setEventDate(firstTicket.getEventDate().toString());
+        order.setSeatInfo(String.join("; ", seatInfos));
+        order.setPrice(BigDecimal.valueOf(firstTicket.getPrice()));
+        order.setQuantity(ticketIds.size());
+        order.setTotalAmount(totalAmount);
+        order.setStatus(Order.OrderStatus.PENDING);
+        order.setCreatedAt(LocalDateTime.now());
+        order.setUpdatedAt(LocalDateTime.now());
+        order.setExpirationTime(ORDER_EXPIRATION_MINUTES);
+        order.setSellerId(firstTicket.getSellerId().toString());
+        order.setSellerUsername("");
+        order.setReservationStatus(Order.ReservationStatus.REQUESTED);
+        order.addOutboxEvent(OutboxEvents.ticketBlockReservation(order, ticketVersions));
+        order.addOutboxEvent(OutboxEvents.orderCreated(order));
+
+        Order savedOrder = orderRepository.save(order);
+        outboxRelay.wakeUp();
+
         LocalDateTime expirationTime = savedOrder.getCreatedAt().plusMinutes(ORDER_EXPIRATION_MINUTES);
         orderEventPublisher.scheduleOrderExpiration(
                 savedOrder.getId(),
-                request.getTicketId(),
+                savedOrder.getTicketId(),
                 request.getUserId(),
                 expirationTime
         );
-        
-        log.info("Order created successfully: {}", savedOrder.getId());
+
+        log.info("Seat block order created successfully: {} ({} tickets)", savedOrder.getId(), ticketIds.size());
 
         return OrderResponse.fromEntity(savedOrder);
     }
 
+    // Assigns the id up front so the order can be placed in its expiry partition before the first write
+    private Order newOrder() {
+        Order order = new Order();
+        order.setId(new ObjectId().toHexString());
+        order.setExpiryPartition(expiryLeaseManager.partitionOf(order.getId()));
+        return order;
+    }
+
+    private TicketResponse fetchPurchasableTicket(String ticketId, String buyerUserId) {
+        TicketResponse ticket = ticketReplica.get(ticketId);
+
+        if (ticket == null) {
+            throw new IllegalArgumentException("Ticket not found with ID: " + ticketId);
+        }
+
+        if (!"AVAILABLE".equals(ticket.getStatus())) {
+            throw new IllegalStateException("Ticket is not available for purchase");
+        }
+
+        // Validate ownership - prevent users from buying their own tickets
+        String ticketOwnerUserId = ticket.getUserId();
+
+        if (buyerUserId.equals(ticketOwnerUserId)) {
+            log.warn("Purchase attempt blocked: User {} tried to buy their own ticket {}",
+                    buyerUserId, ticketId);
+            throw new IllegalArgumentException(
+                    "Purchase not allowed: You cannot buy tickets that you listed for sale.");
+        }
+
+        log.info("Ownership validation passed: Buyer {} is different from ticket owner {}",
+                buyerUserId, ticketOwnerUserId);
+        return ticket;
+    }
+
+    /**
+     * Completes the order with one conditional update, so it cannot race a cancellation, an expiry
+     * claim or a reservation answer that moves the order out of PENDING at the same time.
+     */
     @Transactional
     public OrderResponse completeOrder(String orderId, String paymentId) {
         log.info("Completing order: {} with payment: {}", orderId, paymentId);
@@ -135,33 +208,33 @@ public class OrderService {
             throw new IllegalStateException("Order has expired");
         }
 
-        // Mark ticket as sold in Ticket Service using messaging
-        orderEventPublisher.publishTicketSoldRequest(
-                order.getTicketId(),
-                order.getId(),
-                order.getUserId()
-        );
+        if (requireHold && order.getReservationStatus() == Order.ReservationStatus.REQUESTED) {
+            throw new IllegalStateException("Ticket reservation is not confirmed yet");
+        }
 
-        // Update order status
+        // Mark ticket(s) as sold in Ticket Service and publish order completed, via the outbox
         order.setStatus(Order.OrderStatus.COMPLETED);
-        order.setPaymentId(paymentId);
-        order.setUpdatedAt(LocalDateTime.now());
+        List<OutboxEvent> events = new ArrayList<>();
+        for (String ticketId : order.seatTicketIds()) {
+            events.add(OutboxEvents.ticketSold(order, ticketId));
+        }
+        events.add(OutboxEvents.orderCompleted(order));
 
-        Order savedOrder = orderRepository.save(order);
-        
-        // Publish order completed event
-        orderEventPublisher.publishOrderCompleted(
-                orderId,
-                order.getTicketId(),
-                order.getUserId(),
-                order.getTotalAmount()
-        );
+        Order savedOrder = orderRepository.completePending(orderId, paymentId, events);
+        if (savedOrder == null) {
+            throw new IllegalStateException("Order is no longer pending");
+        }
+        outboxRelay.wakeUp();
+        orderEventPublisher.cancelOrderExpiration(orderId);
         
         log.info("Order completed successfully: {}", orderId);
 
         return OrderResponse.fromEntity(savedOrder);
     }
 
+    /**
+     * Cancels the order with one conditional update, like {@link #completeOrder}.
+     */
     @Transactional
     public OrderResponse cancelOrder(String orderId, String reason) {
         log.info("Cancelling order: {} with reason: {}", orderId, reason);
@@ -173,34 +246,81 @@ public class OrderService {
             throw new IllegalStateException("Only pending orders can be cancelled");
         }
 
-        // Release ticket reservation in Ticket Service using messaging
-        orderEventPublisher.publishTicketReleaseRequest(
-                order.getTicketId(),
-                order.getId(),
-                order.getUserId(),
-                reason
-        );
-
-        // Update order status
+        // Release ticket reservation(s) in Ticket Service and publish order cancelled, via the outbox. The
+        // Ticket Service only releases seats held by this order, so this is safe while the reservation is
+        // still REQUESTED: the release is queued behind the reservation and undoes it if it succeeds
         order.setStatus(Order.OrderStatus.CANCELLED);
-        order.setCancellationReason(reason);
-        order.setUpdatedAt(LocalDateTime.now());
+        List<OutboxEvent> events = new ArrayList<>();
+        for (String ticketId : order.seatTicketIds()) {
+            events.add(OutboxEvents.ticketRelease(order, ticketId, reason));
+        }
+        events.add(OutboxEvents.orderCancelled(order, reason));
 
-        Order savedOrder = orderRepository.save(order);
-        
-        // Publish order cancelled event
-        orderEventPublisher.publishOrderCancelled(
-                orderId,
-                order.getTicketId(),
-                order.getUserId(),
-                reason
-        );
+        Order savedOrder = orderRepository.cancelPending(orderId, reason, null, events);
+        if (savedOrder == null) {
+            throw new IllegalStateException("Only pending orders can be cancelled");
+        }
+        outboxRelay.wakeUp();
+        orderEventPublisher.cancelOrderExpiration(orderId);
         
         log.info("Order cancelled successfully: {}", orderId);
 
         return OrderResponse.fromEntity(savedOrder);
     }
 
+    /**
+     * Saga step: the Ticket Service reserved {@code ticketId} for the order. The order holds its
+     * reservation once every seat is confirmed. A confirmation for an order that was cancelled or expired
+     * in the meantime needs no compensation: that order's release requests were queued behind its
+     * reservation request.
+     */
+    public void confirmReservation(String orderId, String ticketId) {
+        Order order = orderRepository.holdSeat(orderId, ticketId);
+        if (order == null) {
+            log.info("Ignoring reservation of ticket {} for order {} that is no longer pending", ticketId, orderId);
+            return;
+        }
+
+        if (order.getHeldTicketIds().containsAll(order.seatTicketIds()) && orderRepository.markReservationHeld(orderId)) {
+            log.info("Order {} now holds its ticket reservation", orderId);
+        }
+    }
+
+    /**
+     * Compensating saga step: the Ticket Service could not reserve the order's tickets (a seat block
+     * is all-or-nothing, so none are held). The order is cancelled without release requests. An order
+     * already completed before its hold was confirmed (only possible with require-hold off) cannot be
+     * cancelled any more; its reservation is flagged FAILED so the payment can be refunded.
+     */
+    public void failReservation(String orderId, String reason) {
+        Order order = orderRepository.findById(orderId).orElse(null);
+        if (order == null) {
+            return;
+        }
+        if (order.getStatus() == Order.OrderStatus.COMPLETED) {
+            if (orderRepository.markCompletedReservationFailed(orderId)) {
+                log.error("Order {} was completed but its ticket reservation failed, payment {} needs a refund: {}",
+                        orderId, order.getPaymentId(), reason);
+            }
+            return;
+        }
+        if (order.getStatus() != Order.OrderStatus.PENDING) {
+            return;
+        }
+
+        String cancellationReason = "Ticket reservation failed: " + reason;
+        order.setStatus(Order.OrderStatus.CANCELLED);
+        Order cancelled = orderRepository.cancelPending(orderId, cancellationReason, Order.ReservationStatus.FAILED,
+                List.of(OutboxEvents.orderCancelled(order, cancellationReason)));
+        if (cancelled == null) {
+            return;
+        }
+        outboxRelay.wakeUp();
+        orderEventPublisher.cancelOrderExpiration(orderId);
+
+        log.info("Order {} cancelled because its ticket reservation failed: {}", orderId, reason);
+    }
+
     public OrderResponse getOrderById(String orderId) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Order not found"));
@@ -256,37 +376,46 @@ public class OrderService {
     }
 
     /**
-     * Called by Expiration Service to expire orders
+     * Batch expiry path: claims the still-pending orders among {@code orderIds} with one bulk write of
+     * conditional updates. Each claim queues the order's release requests and its ORDER_EXPIRED event in
+     * the order's outbox in the same update, so an order expired here is always announced and its seats
+     * always released, even if this replica stops right after the write.
+     *
+     * @return number of orders expired by this call
      */
-    @Transactional
-    public void expireOrder(String orderId) {
-        log.info("Expiring order: {}", orderId);
+    public int expireOrders(List<String> orderIds) {
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
 
-        Order order = orderRepository.findById(orderId).orElse(null);
-        if (order == null || order.getStatus() != Order.OrderStatus.PENDING) {
-            return;
+        Map<String, List<OutboxEvent>> eventsByOrder = new LinkedHashMap<>();
+        for (Order order : orderRepository.findAllById(orderIds)) {
+            if (order.getStatus() != Order.OrderStatus.PENDING) {
+                continue;
+            }
+            order.setStatus(Order.OrderStatus.EXPIRED);
+            List<OutboxEvent> events = new ArrayList<>();
+            for (String ticketId : order.seatTicketIds()) {
+                events.add(OutboxEvents.ticketRelease(order, ticketId, "Order expired"));
+            }
+            events.add(OutboxEvents.orderExpired(order));
+            eventsByOrder.put(order.getId(), events);
+        }
+        if (eventsByOrder.isEmpty()) {
+            return 0;
         }
 
-        // Release ticket reservation using messaging
-        orderEventPublisher.publishTicketReleaseRequest(
-                order.getTicketId(),
-                order.getId(),
-                order.getUserId(),
-                "Order expired"
-        );
+        String batchId = UUID.randomUUID().toString();
+        long claimed = orderRepository.claimExpired(eventsByOrder, LocalDateTime.now(), batchId);
+        if (claimed == 0) {
+            return 0;
+        }
+        outboxRelay.wakeUp();
 
-        // Update order status
-        order.setStatus(Order.OrderStatus.EXPIRED);
-        order.setUpdatedAt(LocalDateTime.now());
-        orderRepository.save(order);
-        
-        // Publish order expired event
-        orderEventPublisher.publishOrderExpired(
-                orderId,
-                order.getTicketId(),
-                order.getUserId()
-        );
+        List<Order> expiredOrders = orderRepository.findByExpiryBatchId(batchId);
+        expiredOrders.forEach(order -> orderEventPublisher.cancelOrderExpiration(order.getId()));
 
-        log.info("Order expired successfully: {}", orderId);
+        log.info("Expired {} orders in batch {}", expiredOrders.size(), batchId);
+        return expiredOrders.size();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,82 @@
+package com.ticketdaata.ordersservice.expiration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderExpirationTimerTest {
+
+    private OrderExpirationTimer timer;
+    private final List<String> fired = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // 10ms ticks and 4 slots, so anything past 40ms goes through the overflow wheel
+        timer = new OrderExpirationTimer(10, 4);
+        timer.onExpiration(fired::addAll);
+    }
+
+    @AfterEach
+    void tearDown() {
+        timer.stop();
+    }
+
+    @Test
+    void overdueOrderFiresImmediately() {
+        timer.schedule("order-1", LocalDateTime.now().minusMinutes(1));
+
+        assertThat(fired).containsExactly("order-1");
+        assertThat(timer.pendingCount()).isZero();
+    }
+
+    @Test
+    void cascadedOrderFiresAfterItsDeadline() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        timer.onExpiration(ids -> {
+            fired.addAll(ids);
+            latch.countDown();
+        });
+        timer.start();
+
+        LocalDateTime expiresAt = LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(150));
+        timer.schedule("order-1", expiresAt);
+        assertThat(timer.pendingCount()).isEqualTo(1);
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(LocalDateTime.now()).isAfterOrEqualTo(expiresAt);
+        assertThat(fired).containsExactly("order-1");
+        assertThat(timer.pendingCount()).isZero();
+    }
+
+    @Test
+    void cancelledOrderNeverFires() throws InterruptedException {
+        timer.start();
+        timer.schedule("cancelled", LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(50)));
+        timer.schedule("kept", LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(60)));
+
+        assertThat(timer.cancel("cancelled")).isTrue();
+        assertThat(timer.cancel("cancelled")).isFalse();
+
+        Thread.sleep(400);
+        assertThat(fired).containsExactly("kept");
+    }
+
+    @Test
+    void reschedulingReplacesThePendingDeadline() throws InterruptedException {
+        timer.start();
+        timer.schedule("order-1", LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(30)));
+        timer.schedule("order-1", LocalDateTime.now().plusMinutes(10));
+
+        Thread.sleep(300);
+        assertThat(fired).isEmpty();
+        assertThat(timer.pendingCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,93 @@
+package com.ticketdaata.ordersservice.expiration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the wheel with an explicit clock (tick 10ms, 8 slots, starting at 1000) instead of sleeping.
+ */
+class TimingWheelTest {
+
+    private DelayQueue<TimerBucket> delayQueue;
+    private TimingWheel wheel;
+
+    @BeforeEach
+    void setUp() {
+        delayQueue = new DelayQueue<>();
+        wheel = new TimingWheel(10, 8, 1000, delayQueue);
+    }
+
+    @Test
+    void overdueEntryIsReportedDueInsteadOfFiled() {
+        assertThat(wheel.add(new TimerEntry("past", 900))).isFalse();
+        assertThat(wheel.add(new TimerEntry("this-tick", 1009))).isFalse();
+        assertThat(delayQueue).isEmpty();
+    }
+
+    @Test
+    void entryWithinSpanLandsInItsTickBucket() {
+        TimerEntry entry = new TimerEntry("order-1", 1035);
+
+        assertThat(wheel.add(entry)).isTrue();
+
+        assertThat(entry.bucket).isNotNull();
+        assertThat(entry.bucket.getExpiration()).isEqualTo(1030);
+        assertThat(delayQueue).containsExactly(entry.bucket);
+    }
+
+    @Test
+    void entryBeyondSpanCascadesFromOverflowWheel() {
+        TimerEntry entry = new TimerEntry("order-1", 1500);
+
+        assertThat(wheel.add(entry)).isTrue();
+
+        // Overflow level has 80ms ticks, so the entry first sits in the coarse 1440 bucket
+        TimerBucket coarse = entry.bucket;
+        assertThat(coarse.getExpiration()).isEqualTo(1440);
+
+        List<TimerEntry> due = new ArrayList<>();
+        delayQueue.remove(coarse);
+        wheel.advanceClock(coarse.getExpiration());
+        coarse.flush(e -> {
+            if (!wheel.add(e)) {
+                due.add(e);
+            }
+        });
+
+        assertThat(due).isEmpty();
+        assertThat(entry.bucket).isNotSameAs(coarse);
+        assertThat(entry.bucket.getExpiration()).isEqualTo(1500);
+
+        TimerBucket fine = entry.bucket;
+        wheel.advanceClock(fine.getExpiration());
+        fine.flush(e -> {
+            if (!wheel.add(e)) {
+                due.add(e);
+            }
+        });
+
+        assertThat(due).containsExactly(entry);
+    }
+
+    @Test
+    void removedEntryIsNotFlushed() {
+        TimerEntry kept = new TimerEntry("kept", 1035);
+        TimerEntry cancelled = new TimerEntry("cancelled", 1036);
+        wheel.add(kept);
+        wheel.add(cancelled);
+        TimerBucket bucket = kept.bucket;
+
+        bucket.remove(cancelled);
+
+        List<TimerEntry> flushed = new ArrayList<>();
+        bucket.flush(flushed::add);
+        assertThat(cancelled.bucket).isNull();
+        assertThat(flushed).containsExactly(kept);
+    }
+}
@@ -0,0 +1,108 @@
+package com.ticketdaata.ordersservice.replica;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketdaata.ordersservice.Client.TicketServiceClient;
+import com.ticketdaata.ordersservice.dto.TicketResponse;
+import com.ticketdaata.ordersservice.messaging.dto.TicketSnapshotMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TicketReplicaTest {
+
+    private static final TicketResponse SERVICE_ANSWER = ticket("t1", 3L);
+
+    private TicketServiceClient ticketServiceClient;
+    private TicketReplica replica;
+
+    @BeforeEach
+    void setUp() {
+        ticketServiceClient = mock(TicketServiceClient.class);
+        replica = new TicketReplica(ticketServiceClient, new ObjectMapper(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(replica, "enabled", true);
+        ReflectionTestUtils.setField(replica, "tombstoneRetentionMinutes", 60L);
+        replica.registerMetrics();
+    }
+
+    @Test
+    void changeOlderThanTheDeletionDoesNotBringTheTicketBack() {
+        replica.handleTicketSnapshot(changed(ticket("t1", 2L)));
+        replica.handleTicketSnapshot(deleted("t1", 3L));
+        replica.handleTicketSnapshot(changed(ticket("t1", 3L)));
+
+        assertThat(lookUp("t1")).isSameAs(SERVICE_ANSWER);
+    }
+
+    @Test
+    void deletionArrivingFirstStillSuppressesTheOlderChange() {
+        replica.handleTicketSnapshot(deleted("t1", 3L));
+        replica.handleTicketSnapshot(changed(ticket("t1", 2L)));
+
+        assertThat(lookUp("t1")).isSameAs(SERVICE_ANSWER);
+    }
+
+    @Test
+    void newerVersionReplacesTheTombstone() {
+        replica.handleTicketSnapshot(deleted("t1", 3L));
+        TicketResponse recreated = ticket("t1", 4L);
+        replica.handleTicketSnapshot(changed(recreated));
+
+        assertThat(replica.get("t1")).isSameAs(recreated);
+        verify(ticketServiceClient, never()).getTicket("t1");
+    }
+
+    @Test
+    void deletionOlderThanTheHeldCopyIsIgnored() {
+        TicketResponse current = ticket("t1", 5L);
+        replica.handleTicketSnapshot(changed(current));
+        replica.handleTicketSnapshot(deleted("t1", 4L));
+
+        assertThat(replica.get("t1")).isSameAs(current);
+    }
+
+    @Test
+    void expiredTombstonesArePurged() {
+        replica.handleTicketSnapshot(deleted("t1", 3L));
+        ReflectionTestUtils.setField(replica, "tombstoneRetentionMinutes", -1L);
+        replica.purgeTombstones();
+
+        TicketResponse stale = ticket("t1", 2L);
+        replica.handleTicketSnapshot(changed(stale));
+        assertThat(replica.get("t1")).isSameAs(stale);
+    }
+
+    // A deleted ticket is a miss, answered by the Ticket Service and not cached over the tombstone
+    private TicketResponse lookUp(String ticketId) {
+        when(ticketServiceClient.getTicket(ticketId)).thenReturn(ResponseEntity.ok(SERVICE_ANSWER));
+        TicketResponse answer = replica.get(ticketId);
+        assertThat(replica.get(ticketId)).isSameAs(answer);
+        verify(ticketServiceClient, times(2)).getTicket(ticketId);
+        return answer;
+    }
+
+    private static TicketSnapshotMessage changed(TicketResponse ticket) {
+        return TicketSnapshotMessage.builder().ticketId(ticket.getId()).ticket(ticket).version(ticket.getVersion())
+                .eventType("TICKET_CHANGED").build();
+    }
+
+    private static TicketSnapshotMessage deleted(String ticketId, Long version) {
+        return TicketSnapshotMessage.builder().ticketId(ticketId).version(version).eventType("TICKET_DELETED").build();
+    }
+
+    private static TicketResponse ticket(String id, Long version) {
+        TicketResponse ticket = new TicketResponse();
+        ticket.setId(id);
+        ticket.setVersion(version);
+        ticket.setStatus("AVAILABLE");
+        return ticket;
+    }
+}
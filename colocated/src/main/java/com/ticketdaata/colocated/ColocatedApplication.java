@@ -0,0 +1,45 @@
+package com.ticketdaata.colocated;
+
+import com.ticketdaata.ordersservice.OrdersServiceApplication;
+import com.ticketdaata.ticketservice.TicketServiceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+import java.net.URL;
+
+/**
+ * Starts the Ticket Service and the Orders Service in one JVM, as two independent application contexts
+ * on their usual ports. Both run the in-memory broker in co-located mode, so reservation requests and
+ * ticket status replies move between them through {@link com.ticketdaata.inprocess.InProcessTransport}
+ * with no RabbitMQ and no HTTP. The Ticket Service starts first and owns the shared queues.
+ * <p>
+ * Both services ship an {@code application.yml} at the classpath root, so each context is pointed at
+ * the one inside its own jar instead of whichever comes first on the classpath.
+ */
+public class ColocatedApplication {
+
+    public static void main(String[] args) {
+        setIfAbsent("messaging.mode", "inmemory");
+        setIfAbsent("messaging.inmemory.colocated", "true");
+
+        start(TicketServiceApplication.class, args);
+        start(OrdersServiceApplication.class, args);
+    }
+
+    private static void start(Class<?> application, String[] args) {
+        new SpringApplicationBuilder(application)
+                .properties("spring.config.location=" + ownConfig(application))
+                .run(args);
+    }
+
+    private static String ownConfig(Class<?> application) {
+        URL location = application.getProtectionDomain().getCodeSource().getLocation();
+        String base = location.toExternalForm();
+        return base.endsWith(".jar") ? "jar:" + base + "!/application.yml" : base + "application.yml";
+    }
+
+    private static void setIfAbsent(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Open-model load benchmark for order creation. Seeds tickets through the Ticket Service bulk endpoint,
+ * then creates one order per ticket at a fixed arrival rate, raising the rate step by step. Latency is
+ * measured from each request's scheduled send time, so a stalled server is not hidden by the client
+ * slowing down. A step is sustainable when at most 1% of orders fail, the achieved rate is within 5% of
+ * the target and p99 stays under the SLO; the report ends with the highest sustainable rate.
+ * <p>
+ * Run it once per threading mode against freshly started services and compare the two reports:
+ * <pre>
+ *   VIRTUAL_THREADS_ENABLED=false  (start services)  java loadtest/OrderLoadBenchmark.java
+ *   VIRTUAL_THREADS_ENABLED=true   (restart services) java loadtest/OrderLoadBenchmark.java
+ * </pre>
+ * Options, all {@code --name=value}: tickets-url (http://localhost:8082), orders-url
+ * (http://localhost:9002), start-rate (50), step (50), max-rate (1000), step-seconds (20),
+ * p99-slo-ms (500), settle-seconds (5).
+ */
+public class OrderLoadBenchmark {
+
+    private static final Pattern TICKET_ID = Pattern.compile("\"id\"\\s*:\\s*\"([0-9a-f]{24})\"");
+    private static final int SEED_CHUNK = 1000;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        String ticketsUrl = options.getOrDefault("tickets-url", "http://localhost:8082");
+        String ordersUrl = options.getOrDefault("orders-url", "http://localhost:9002");
+        int startRate = Integer.parseInt(options.getOrDefault("start-rate", "50"));
+        int step = Integer.parseInt(options.getOrDefault("step", "50"));
+        int maxRate = Integer.parseInt(options.getOrDefault("max-rate", "1000"));
+        int stepSeconds = Integer.parseInt(options.getOrDefault("step-seconds", "20"));
+        long sloMs = Long.parseLong(options.getOrDefault("p99-slo-ms", "500"));
+        int settleSeconds = Integer.parseInt(options.getOrDefault("settle-seconds", "5"));
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(8))
+                .build();
+
+        int ticketsNeeded = 0;
+        for (int rate = startRate; rate <= maxRate; rate += step) {
+            ticketsNeeded += rate * stepSeconds;
+        }
+        List<String> ticketIds = seedTickets(client, ticketsUrl, ticketsNeeded);
+        System.out.printf("Seeded %d tickets, waiting %ds for replicas to catch up%n", ticketIds.size(), settleSeconds);
+        Thread.sleep(settleSeconds * 1000L);
+
+        System.out.printf("%10s %10s %8s %8s %8s %8s %s%n", "target/s", "ok/s", "errors", "p50 ms", "p99 ms", "max ms", "");
+        AtomicInteger nextTicket = new AtomicInteger();
+        int bestRate = 0;
+        for (int rate = startRate; rate <= maxRate; rate += step) {
+            StepResult result = runStep(client, ordersUrl, ticketIds, nextTicket, rate, stepSeconds);
+            boolean sustainable = result.errorRate() <= 0.01
+                    && result.okPerSecond() >= rate * 0.95
+                    && result.percentile(0.99) <= sloMs;
+            System.out.printf("%10d %10.1f %7.2f%% %8d %8d %8d %s%n", rate, result.okPerSecond(),
+                    result.errorRate() * 100, result.percentile(0.50), result.percentile(0.99),
+                    result.percentile(1.0), sustainable ? "" : "<- not sustainable");
+            if (!sustainable) {
+                break;
+            }
+            bestRate = rate;
+        }
+        System.out.printf("Max sustainable rate: %d orders/s (p99 SLO %dms)%n", bestRate, sloMs);
+        System.exit(0);
+    }
+
+    private static List<String> seedTickets(HttpClient client, String ticketsUrl, int count) throws Exception {
+        List<String> ids = new ArrayList<>(count);
+        String eventDate = LocalDateTime.now().plusDays(30).withNano(0).toString();
+        for (int offset = 0; offset < count; offset += SEED_CHUNK) {
+            StringBuilder body = new StringBuilder("[");
+            for (int i = offset; i < Math.min(offset + SEED_CHUNK, count); i++) {
+                if (i > offset) {
+                    body.append(',');
+                }
+                body.append("{\"eventName\":\"Load Test\",\"category\":\"Benchmark\",\"location\":\"Lab\",")
+                        .append("\"eventDate\":\"").append(eventDate).append("\",")
+                        .append("\"seatInfo\":\"Seat ").append(i).append("\",")
+                        .append("\"price\":10.0,\"userId\":\"loadtest-seller\",\"sellerId\":1}");
+            }
+            body.append(']');
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(ticketsUrl + "/tickets/bulk"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seeding tickets failed with HTTP " + response.statusCode() + ": " + response.body());
+            }
+            Matcher matcher = TICKET_ID.matcher(response.body());
+            while (matcher.find()) {
+                ids.add(matcher.group(1));
+            }
+        }
+        return ids;
+    }
+
+    private static StepResult runStep(HttpClient client, String ordersUrl, List<String> ticketIds,
+                                      AtomicInteger nextTicket, int rate, int seconds) throws InterruptedException {
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicInteger errors = new AtomicInteger();
+        AtomicInteger outstanding = new AtomicInteger();
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long startNanos = System.nanoTime();
+        int total = rate * seconds;
+
+        for (int i = 0; i < total; i++) {
+            long scheduledAt = startNanos + i * intervalNanos;
+            scheduler.schedule(() -> {
+                int index = nextTicket.getAndIncrement();
+                if (index >= ticketIds.size()) {
+                    errors.incrementAndGet();
+                    return;
+                }
+                String body = "{\"userId\":\"loadtest-buyer-" + index + "\",\"ticketId\":\"" + ticketIds.get(index)
+                        + "\",\"quantity\":1}";
+                outstanding.incrementAndGet();
+                client.sendAsync(HttpRequest.newBuilder(URI.create(ordersUrl + "/orders"))
+                                .header("Content-Type", "application/json")
+                                .timeout(Duration.ofSeconds(30))
+                                .POST(HttpRequest.BodyPublishers.ofString(body))
+                                .build(), HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, error) -> {
+                            long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - scheduledAt);
+                            if (error != null || response.statusCode() != 201) {
+                                errors.incrementAndGet();
+                            } else {
+                                latencies.add(latencyMs);
+                            }
+                            outstanding.decrementAndGet();
+                        });
+            }, scheduledAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        scheduler.shutdown();
+        scheduler.awaitTermination(seconds + 5L, TimeUnit.SECONDS);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (outstanding.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+        return new StepResult(latencies.stream().mapToLong(Long::longValue).sorted().toArray(), errors.get(), elapsedSeconds);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+
+    private record StepResult(long[] sortedLatenciesMs, int errors, double elapsedSeconds) {
+
+        double okPerSecond() {
+            return sortedLatenciesMs.length / elapsedSeconds;
+        }
+
+        double errorRate() {
+            int total = sortedLatenciesMs.length + errors;
+            return total == 0 ? 0 : (double) errors / total;
+        }
+
+        long percentile(double quantile) {
+            if (sortedLatenciesMs.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sortedLatenciesMs.length) - 1;
+            return sortedLatenciesMs[Math.max(0, Math.min(index, sortedLatenciesMs.length - 1))];
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.ticketdaata.inprocess;
+
+import org.springframework.amqp.core.Binding;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * JVM-wide rendezvous for the co-located profile ({@code messaging.inmemory.colocated=true}), where
+ * several services run in one JVM (see the {@code colocated} launcher module). The first in-memory broker
+ * to join becomes the primary; the others hand it their bindings, sends and listeners, so the JVM behaves
+ * like one broker with one set of queues and messages move between services as object references.
+ * <p>
+ * Every service carries an identical copy of this class so whichever is loaded first is shared.
+ * Only JDK and Spring AMQP types cross it. Keep the copies in sync.
+ */
+public final class InProcessTransport {
+
+    /**
+     * What a co-located broker exposes to the others.
+     */
+    public interface Broker {
+        void addBindings(Collection<Binding> bindings);
+
+        /**
+         * @param maxAttempts delivery attempts per queue name, from the queues' {@code x-delivery-limit}
+         */
+        void addDeliveryLimits(Map<String, Integer> maxAttempts);
+
+        void send(String exchange, String routingKey, Object message);
+
+        void listen(String queueName, Consumer<Object> listener);
+    }
+
+    private static final AtomicReference<Broker> PRIMARY = new AtomicReference<>();
+
+    private InProcessTransport() {
+    }
+
+    /**
+     * @return the broker the caller must delegate to: the first one that joined, possibly the caller itself
+     */
+    public static Broker join(Broker broker) {
+        PRIMARY.compareAndSet(null, broker);
+        return PRIMARY.get();
+    }
+
+    public static void leave(Broker broker) {
+        PRIMARY.compareAndSet(broker, null);
+    }
+}
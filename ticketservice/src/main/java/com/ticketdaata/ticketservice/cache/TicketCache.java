@@ -0,0 +1,94 @@
+package com.ticketdaata.ticketservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ticketdaata.ticketservice.dto.TicketResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Bounded, TTL-evicting local cache of {@link TicketResponse} by ticket id.
+ * Entries carry the ticket version and a write never replaces a newer version, so a slow reader
+ * cannot overwrite the result of a state transition. Invalidating a ticket leaves a version floor
+ * behind for one TTL, so a reader that loaded the ticket before the write cannot put the old copy
+ * back once the entry is gone. Changes made by other replicas arrive as ticket change events and
+ * raise the floor the same way. Hit/miss/eviction counts are published as the {@code cache.*}
+ * metrics with {@code cache=tickets}.
+ */
+@Slf4j
+@Component
+public class TicketCache {
+
+    private final Cache<String, TicketResponse> cache;
+    // Highest version known to be stale, per recently invalidated or changed ticket
+    private final Cache<String, Long> floors;
+
+    public TicketCache(MeterRegistry meterRegistry,
+                       @Value("${tickets.cache.max-size:10000}") long maxSize,
+                       @Value("${tickets.cache.ttl-seconds:30}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.floors = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "tickets");
+        log.info("Ticket cache configured with max size {} and TTL {}s", maxSize, ttlSeconds);
+    }
+
+    /**
+     * @return the cached ticket, or null on a miss
+     */
+    public TicketResponse get(String ticketId) {
+        return cache.getIfPresent(ticketId);
+    }
+
+    /**
+     * Caches a ticket read from Mongo, unless a newer version is cached or the version is known stale.
+     */
+    public void put(TicketResponse ticket) {
+        Long floor = floors.getIfPresent(ticket.getId());
+        if (floor != null && versionOf(ticket.getVersion()) <= floor) {
+            return;
+        }
+        cache.asMap().merge(ticket.getId(), ticket, TicketCache::newerVersion);
+    }
+
+    /**
+     * Drops the ticket and refuses later puts of {@code staleVersion} or older, e.g. a delete passes the
+     * version it deleted.
+     */
+    public void invalidate(String ticketId, long staleVersion) {
+        floors.asMap().merge(ticketId, staleVersion, Math::max);
+        cache.asMap().computeIfPresent(ticketId,
+                (id, cached) -> versionOf(cached.getVersion()) > staleVersion ? cached : null);
+    }
+
+    /**
+     * Applies a change made by any replica: everything older is stale, and a cached copy is replaced.
+     * Tickets that are not cached stay uncached.
+     */
+    public void applyChange(TicketResponse ticket) {
+        floors.asMap().merge(ticket.getId(), versionOf(ticket.getVersion()) - 1, Math::max);
+        cache.asMap().computeIfPresent(ticket.getId(), (id, cached) -> newerVersion(cached, ticket));
+    }
+
+    private static TicketResponse newerVersion(TicketResponse cached, TicketResponse candidate) {
+        if (cached.getVersion() == null || candidate.getVersion() == null) {
+            return candidate;
+        }
+        return candidate.getVersion() >= cached.getVersion() ? candidate : cached;
+    }
+
+    private static long versionOf(Long version) {
+        return version != null ? version : -1;
+    }
+}
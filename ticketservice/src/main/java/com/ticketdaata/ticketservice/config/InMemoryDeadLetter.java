@@ -0,0 +1,26 @@
+package com.ticketdaata.ticketservice.config;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * A message that exhausted its delivery attempts, parked until it is replayed or purged.
+ */
+@Data
+@AllArgsConstructor
+public class InMemoryDeadLetter {
+
+    private String id;
+    private String queue;
+    private Object payload;
+    private int attempts;
+    private String lastError;
+    private LocalDateTime deadLetteredAt;
+
+    // Kept unacknowledged in the journal so dead letters survive a restart
+    @JsonIgnore
+    private long journalOffset;
+}
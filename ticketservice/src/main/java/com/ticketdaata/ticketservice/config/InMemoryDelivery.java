@@ -0,0 +1,34 @@
+package com.ticketdaata.ticketservice.config;
+
+import lombok.Getter;
+
+/**
+ * A message travelling through an in-memory queue, with its delivery history.
+ * Only touched by the drain loop of its queue.
+ */
+@Getter
+class InMemoryDelivery {
+
+    private final Object payload;
+    // Journal offset to acknowledge once handled, or -1 when the journal is off
+    private final long journalOffset;
+    private int failedAttempts;
+    private String lastError;
+
+    InMemoryDelivery(Object payload, long journalOffset) {
+        this.payload = payload;
+        this.journalOffset = journalOffset;
+    }
+
+    /**
+     * The same message without a journal offset, for a queue that will never acknowledge it.
+     */
+    InMemoryDelivery untracked() {
+        return journalOffset < 0 ? this : new InMemoryDelivery(payload, -1);
+    }
+
+    void recordFailure(String error) {
+        failedAttempts++;
+        lastError = error;
+    }
+}
@@ -0,0 +1,167 @@
+package com.ticketdaata.ticketservice.config;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * One queue of the in-memory broker: a bounded ring buffer drained by a dedicated single consumer
+ * thread. The drain loop pulls everything available (up to the batch size) in one go and delivers it
+ * in order, so messages of one queue are never processed concurrently. A delivery that fails is
+ * handed to the broker's {@link FailureHandler} and retried in place once its backoff has elapsed,
+ * holding back the messages behind it, so a queue is consumed in order even across retries.
+ */
+@Slf4j
+class InMemoryQueue {
+
+    /**
+     * Decides what happens to a delivery whose listener threw: retry after a backoff or dead-letter.
+     */
+    interface FailureHandler {
+        /**
+         * @return milliseconds to wait before the next attempt, or a negative value if the delivery was dead-lettered
+         */
+        long onFailure(InMemoryQueue queue, InMemoryDelivery delivery, Exception error);
+    }
+
+    @Getter
+    private final String name;
+    private final ArrayBlockingQueue<InMemoryDelivery> buffer;
+    private final int batchSize;
+    private final FailureHandler failureHandler;
+    private final Consumer<InMemoryDelivery> deliveredHandler;
+
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong redelivered = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+
+    private volatile Consumer<Object> listener;
+    private volatile boolean running = true;
+    private Thread drainer;
+
+    InMemoryQueue(String name, int capacity, int batchSize, FailureHandler failureHandler,
+                  Consumer<InMemoryDelivery> deliveredHandler) {
+        this.name = name;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.failureHandler = failureHandler;
+        this.deliveredHandler = deliveredHandler;
+    }
+
+    /**
+     * Enqueues a delivery, blocking up to {@code timeoutMs} while the buffer is full. A queue nobody
+     * listens to never blocks its sender: it keeps what fits, without its journal offset, and discards
+     * the rest. Such a queue may never get a consumer, so what it keeps must not pin the journal.
+     *
+     * @return false if this queue will not acknowledge the delivery: it was discarded, or kept with no consumer
+     * @throws IllegalStateException if the buffer stayed full for the whole timeout
+     */
+    boolean publish(InMemoryDelivery delivery, long timeoutMs) {
+        if (listener == null) {
+            if (!buffer.offer(delivery.untracked())) {
+                discarded.incrementAndGet();
+            }
+            return false;
+        }
+        enqueue(delivery, timeoutMs);
+        return true;
+    }
+
+    /**
+     * Attaches the single consumer and starts draining. Messages published earlier are delivered first.
+     */
+    synchronized void attach(Consumer<Object> listener) {
+        this.listener = listener;
+        if (drainer == null) {
+            drainer = new Thread(this::drainLoop, "inmemory-" + name);
+            drainer.setDaemon(true);
+            drainer.start();
+        }
+    }
+
+    int size() {
+        return buffer.size();
+    }
+
+    long deliveredCount() {
+        return delivered.get();
+    }
+
+    long failedCount() {
+        return failed.get();
+    }
+
+    long redeliveredCount() {
+        return redelivered.get();
+    }
+
+    long discardedCount() {
+        return discarded.get();
+    }
+
+    synchronized void shutdown() {
+        running = false;
+        if (drainer != null) {
+            drainer.interrupt();
+        }
+    }
+
+    private void enqueue(InMemoryDelivery delivery, long timeoutMs) {
+        try {
+            if (!buffer.offer(delivery, timeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("In-memory queue '" + name + "' is full");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing to in-memory queue '" + name + "'", e);
+        }
+    }
+
+    private void drainLoop() {
+        List<InMemoryDelivery> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(buffer.take());
+                buffer.drainTo(batch, batchSize - 1);
+                for (InMemoryDelivery delivery : batch) {
+                    deliver(delivery);
+                }
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Interrupted during a backoff, the delivery stays unacknowledged, so a journaled message is replayed
+    private void deliver(InMemoryDelivery delivery) throws InterruptedException {
+        while (true) {
+            try {
+                listener.accept(delivery.getPayload());
+                delivered.incrementAndGet();
+                break;
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                long delayMs = failureHandler.onFailure(this, delivery, e);
+                if (delayMs < 0) {
+                    return;
+                }
+                TimeUnit.MILLISECONDS.sleep(delayMs);
+                redelivered.incrementAndGet();
+            }
+        }
+        try {
+            deliveredHandler.accept(delivery);
+        } catch (Exception e) {
+            log.error("[InMemory] Failed to acknowledge delivery on queue '{}': {}", name, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.ticketdaata.ticketservice.config;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One fixed-size, memory-mapped file of the broker journal. Named after the first message offset it
+ * holds; the unwritten tail is zero-filled, so a zero length marks the end of the data.
+ */
+class JournalSegment {
+
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".log";
+
+    private final long baseOffset;
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    // Messages in this segment that have not been acknowledged yet
+    private final AtomicInteger live = new AtomicInteger();
+
+    private JournalSegment(long baseOffset, Path path, FileChannel channel, MappedByteBuffer buffer) {
+        this.baseOffset = baseOffset;
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    static JournalSegment create(Path directory, long baseOffset, int sizeBytes) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", PREFIX, baseOffset, SUFFIX));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new JournalSegment(baseOffset, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, sizeBytes));
+    }
+
+    static JournalSegment open(Path path) throws IOException {
+        String name = path.getFileName().toString();
+        long baseOffset = Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new JournalSegment(baseOffset, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+    }
+
+    static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+
+    long baseOffset() {
+        return baseOffset;
+    }
+
+    MappedByteBuffer buffer() {
+        return buffer;
+    }
+
+    AtomicInteger live() {
+        return live;
+    }
+
+    boolean hasRoom(int bytes) {
+        return buffer.remaining() >= bytes;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    void closeAndDelete() throws IOException {
+        channel.close();
+        Files.deleteIfExists(path);
+    }
+
+    void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+}
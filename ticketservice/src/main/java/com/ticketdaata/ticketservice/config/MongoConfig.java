@@ -3,8 +3,11 @@ package com.ticketdaata.ticketservice.config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
 import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import org.slf4j.Logger;
@@ -27,6 +30,14 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
         return databaseName;
     }
 
+    /**
+     * Builds the indexes declared on the entities, including the TTL indexes, when their collections are first used.
+     */
+    @Override
+    protected boolean autoIndexCreation() {
+        return true;
+    }
+
     @Override
     @Bean
     public MongoClient mongoClient() {
@@ -48,9 +59,25 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
         }
     }
 
+    // Uses the configuration's converter so the template picks up its mapping context and index creation
+    @Override
     @Bean
-    public MongoTemplate mongoTemplate() throws Exception {
+    public MongoTemplate mongoTemplate(MongoDatabaseFactory databaseFactory, MappingMongoConverter converter) {
         log.info("MongoConfig: Creating MongoTemplate for database: {}", databaseName);
-        return new MongoTemplate(mongoClient(), getDatabaseName());
+        return new MongoTemplate(databaseFactory, converter);
+    }
+
+    /**
+     * Non-blocking client for the reactive read API, on the same cluster and database as the blocking one.
+     */
+    @Bean
+    public com.mongodb.reactivestreams.client.MongoClient reactiveMongoClient() {
+        log.info("MongoConfig: Creating reactive MongoClient for database: {}", databaseName);
+        return com.mongodb.reactivestreams.client.MongoClients.create(mongoUri);
+    }
+
+    @Bean
+    public ReactiveMongoTemplate reactiveMongoTemplate() {
+        return new ReactiveMongoTemplate(reactiveMongoClient(), getDatabaseName());
     }
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.ticketdaata.ticketservice.config;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Executor for Spring MVC async requests, separate from the shared {@code applicationTaskExecutor} behind
+ * {@code @Async}. MVC writes each NDJSON line of a {@code Flux} response with blocking servlet I/O on one of
+ * these threads, so a client that reads slowly holds a thread for as long as a write to it blocks. At most
+ * {@code tickets.reactive.writer-threads} streams can be mid-write at once; writes for the others wait in
+ * the queue. With virtual threads enabled every write gets its own virtual thread instead.
+ * <p>
+ * Kept out of the context on purpose: an {@code Executor} bean would replace Boot's task executor.
+ */
+@Configuration
+public class WebAsyncConfig implements WebMvcConfigurer {
+
+    private final AsyncTaskExecutor executor;
+
+    public WebAsyncConfig(@Value("${tickets.reactive.writer-threads:64}") int writerThreads,
+                          @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor virtualExecutor = new SimpleAsyncTaskExecutor("mvc-async-");
+            virtualExecutor.setVirtualThreads(true);
+            this.executor = virtualExecutor;
+        } else {
+            ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+            pool.setCorePoolSize(writerThreads);
+            pool.setMaxPoolSize(writerThreads);
+            pool.setThreadNamePrefix("mvc-async-");
+            pool.initialize();
+            this.executor = pool;
+        }
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(executor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ThreadPoolTaskExecutor pool) {
+            pool.shutdown();
+        }
+    }
+}
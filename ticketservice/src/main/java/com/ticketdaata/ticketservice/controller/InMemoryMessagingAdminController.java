@@ -0,0 +1,54 @@
+package com.ticketdaata.ticketservice.controller;
+
+import com.ticketdaata.ticketservice.config.InMemoryDeadLetter;
+import com.ticketdaata.ticketservice.config.InMemoryMessageBroker;
+import com.ticketdaata.ticketservice.config.InMemoryQueueStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inspect and replay dead-lettered messages of the in-memory broker.
+ */
+@RestController
+@RequestMapping("/admin/messaging")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "messaging.mode", havingValue = "inmemory", matchIfMissing = true)
+public class InMemoryMessagingAdminController {
+
+    private final InMemoryMessageBroker broker;
+
+    @GetMapping("/queues")
+    public ResponseEntity<List<InMemoryQueueStats>> queueStats() {
+        return ResponseEntity.ok(broker.queueStats());
+    }
+
+    @GetMapping("/dead-letters/{queue}")
+    public ResponseEntity<List<InMemoryDeadLetter>> deadLetters(@PathVariable String queue) {
+        return ResponseEntity.ok(broker.deadLetters(queue));
+    }
+
+    /**
+     * Replays the given dead letters, or the whole dead-letter queue when no ids are passed.
+     */
+    @PostMapping("/dead-letters/{queue}/replay")
+    public ResponseEntity<Map<String, Integer>> replay(@PathVariable String queue,
+                                                       @RequestParam(required = false) List<String> ids) {
+        return ResponseEntity.ok(Map.of("replayed", broker.replayDeadLetters(queue, ids)));
+    }
+
+    @DeleteMapping("/dead-letters/{queue}")
+    public ResponseEntity<Map<String, Integer>> purge(@PathVariable String queue) {
+        return ResponseEntity.ok(Map.of("purged", broker.purgeDeadLetters(queue)));
+    }
+}
@@ -0,0 +1,82 @@
+package com.ticketdaata.ticketservice.controller;
+
+import com.ticketdaata.ticketservice.dto.TicketResponse;
+import com.ticketdaata.ticketservice.entity.TicketStatus;
+import com.ticketdaata.ticketservice.service.ReactiveTicketService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reactive variant of the browse endpoints in {@link TicketController}. The request thread returns as soon
+ * as the query is started; lists are written as NDJSON while the Mongo cursor is read, one ticket per line.
+ * The writes are still blocking servlet I/O, done on the MVC async executor (see {@link
+ * com.ticketdaata.ticketservice.config.WebAsyncConfig}): a stream holds no thread while it waits for Mongo,
+ * but one writer thread while a write to a slow client blocks, so {@code tickets.reactive.writer-threads}
+ * bounds how many clients can be written to at once.
+ */
+@RestController
+@RequestMapping("/tickets/reactive")
+@RequiredArgsConstructor
+public class ReactiveTicketController {
+
+    private final ReactiveTicketService reactiveTicketService;
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TicketResponse> getAvailableTickets() {
+        return reactiveTicketService.listByStatus(TicketStatus.AVAILABLE);
+    }
+
+    @GetMapping(value = "/status/{status}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TicketResponse> getTicketsByStatus(@PathVariable String status) {
+        return reactiveTicketService.listByStatus(parseStatus(status));
+    }
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<List<TicketResponse>>> searchTickets(@RequestParam String query,
+                                                                    @RequestParam(defaultValue = "0") int page,
+                                                                    @RequestParam(required = false) Integer size) {
+        return reactiveTicketService.searchByEvent(query, page, size)
+                .map(result -> ResponseEntity.ok()
+                        .header("X-Total-Count", String.valueOf(result.getTotal()))
+                        .body(result.getItems()));
+    }
+
+    @GetMapping(value = "/happening-between", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TicketResponse> getTicketsHappeningBetween(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return reactiveTicketService.happeningBetween(from, to);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<TicketResponse> getTicket(@PathVariable String id) {
+        return reactiveTicketService.get(id);
+    }
+
+    private TicketStatus parseStatus(String status) {
+        try {
+            return TicketStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid ticket status: " + status + ". Valid statuses are: AVAILABLE, RESERVED, SOLD");
+        }
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleNotFound(IllegalArgumentException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<String> handleBadState(IllegalStateException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+}
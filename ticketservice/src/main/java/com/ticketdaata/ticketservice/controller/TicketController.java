@@ -1,19 +1,33 @@
 package com.ticketdaata.ticketservice.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketdaata.ticketservice.dto.BulkCreateTicketsResponse;
 import com.ticketdaata.ticketservice.dto.CreateTicketRequest;
+import com.ticketdaata.ticketservice.dto.TicketPage;
 import com.ticketdaata.ticketservice.dto.TicketResponse;
+import com.ticketdaata.ticketservice.dto.TicketSearchResult;
 import com.ticketdaata.ticketservice.dto.UpdateTicketRequest;
 import com.ticketdaata.ticketservice.entity.TicketStatus;
+import com.ticketdaata.ticketservice.exception.TicketVersionConflictException;
+import com.ticketdaata.ticketservice.live.TicketAvailabilityFeed;
 import com.ticketdaata.ticketservice.service.TicketService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/tickets")
@@ -21,6 +35,8 @@ import java.util.Map;
 public class TicketController {
 
     private final TicketService ticketService;
+    private final TicketAvailabilityFeed ticketAvailabilityFeed;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -28,19 +44,72 @@ public class TicketController {
         return ticketService.create(request);
     }
 
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public BulkCreateTicketsResponse createTicketsBulk(@RequestBody List<CreateTicketRequest> requests) {
+        return ticketService.createBulk(requests.iterator());
+    }
+
+    /**
+     * Streamed upload: one CreateTicketRequest JSON document per line, parsed as it arrives. A malformed
+     * line ends the upload with a failed result for it; the lines before it are still created.
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public BulkCreateTicketsResponse createTicketsBulkStream(InputStream body) throws IOException {
+        try (MappingIterator<CreateTicketRequest> requests =
+                     objectMapper.readerFor(CreateTicketRequest.class).readValues(body)) {
+            return ticketService.createBulk(requests);
+        }
+    }
+
     @GetMapping
     public List<TicketResponse> getAvailableTickets() {
         return ticketService.listAvailable();
     }
 
+    @GetMapping("/page")
+    public TicketPage getAvailableTicketsPage(@RequestParam(required = false) String cursor,
+                                              @RequestParam(required = false) Integer limit) {
+        return ticketService.pageByStatus(TicketStatus.AVAILABLE, cursor, limit);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAvailableTickets() {
+        return ndjson(sink -> ticketService.streamByStatus(TicketStatus.AVAILABLE, sink));
+    }
+
     @GetMapping("/status/{status}")
     public List<TicketResponse> getTicketsByStatus(@PathVariable String status) {
-        try {
-            TicketStatus ticketStatus = TicketStatus.valueOf(status.toUpperCase());
-            return ticketService.listByStatus(ticketStatus);
-        } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException("Invalid ticket status: " + status + ". Valid statuses are: AVAILABLE, RESERVED, SOLD");
-        }
+        return ticketService.listByStatus(parseStatus(status));
+    }
+
+    @GetMapping("/status/{status}/page")
+    public TicketPage getTicketsByStatusPage(@PathVariable String status,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) Integer limit) {
+        return ticketService.pageByStatus(parseStatus(status), cursor, limit);
+    }
+
+    @GetMapping(value = "/status/{status}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamTicketsByStatus(@PathVariable String status) {
+        TicketStatus ticketStatus = parseStatus(status);
+        return ndjson(sink -> ticketService.streamByStatus(ticketStatus, sink));
+    }
+
+    /**
+     * Every ticket as NDJSON, for services seeding a local ticket replica.
+     */
+    @GetMapping(value = "/snapshot", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSnapshot() {
+        return ndjson(ticketService::streamAll);
+    }
+
+    /**
+     * Server-sent events with the status changes of one event's tickets, or of every ticket without
+     * {@code eventName}; see {@link TicketAvailabilityFeed}.
+     */
+    @GetMapping(value = "/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter liveAvailability(@RequestParam(required = false) String eventName) {
+        return ticketAvailabilityFeed.subscribe(eventName);
     }
 
     @GetMapping("/{id}")
@@ -64,6 +133,14 @@ public class TicketController {
         return ticketService.reserve(id, version);
     }
 
+    /**
+     * Reserves a seat block all-or-nothing. Body maps ticket id to expected version.
+     */
+    @PostMapping("/reserve-block")
+    public List<TicketResponse> reserveTicketBlock(@RequestBody Map<String, Long> versionsById) {
+        return ticketService.reserveAll(versionsById);
+    }
+
     @PostMapping("/{id}/release")
     public TicketResponse releaseTicket(@PathVariable String id) {
         return ticketService.release(id);
@@ -75,8 +152,13 @@ public class TicketController {
     }
 
     @GetMapping("/search")
-    public List<TicketResponse> searchTickets(@RequestParam String query) {
-        return ticketService.searchByEvent(query);
+    public ResponseEntity<List<TicketResponse>> searchTickets(@RequestParam String query,
+                                                              @RequestParam(defaultValue = "0") int page,
+                                                              @RequestParam(required = false) Integer size) {
+        TicketSearchResult result = ticketService.searchByEvent(query, page, size);
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(result.getTotal()))
+                .body(result.getItems());
     }
 
     @GetMapping("/happening-between")
@@ -91,11 +173,41 @@ public class TicketController {
         return ResponseEntity.ok(Map.of("status", "UP", "service", "Ticket Service"));
     }
 
+    private TicketStatus parseStatus(String status) {
+        try {
+            return TicketStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid ticket status: " + status + ". Valid statuses are: AVAILABLE, RESERVED, SOLD");
+        }
+    }
+
+    /**
+     * Writes one JSON document per line as tickets come off the Mongo cursor.
+     */
+    private ResponseEntity<StreamingResponseBody> ndjson(Consumer<Consumer<TicketResponse>> source) {
+        StreamingResponseBody body = out -> source.accept(ticket -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(ticket));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<String> handleNotFound(IllegalArgumentException e) {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
     }
 
+    @ExceptionHandler(TicketVersionConflictException.class)
+    public ResponseEntity<String> handleVersionConflict(TicketVersionConflictException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+
     @ExceptionHandler(IllegalStateException.class)
     public ResponseEntity<String> handleBadState(IllegalStateException e) {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
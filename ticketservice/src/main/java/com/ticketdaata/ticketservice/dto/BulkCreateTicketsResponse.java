@@ -0,0 +1,24 @@
+package com.ticketdaata.ticketservice.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkCreateTicketsResponse {
+    private int created;
+    private int failed;
+    private List<ItemResult> results; // One entry per submitted ticket, in submission order
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private int index;
+        private String id; // Set when the ticket was created
+        private String error; // Set when validation or the insert failed
+    }
+}
@@ -0,0 +1,15 @@
+package com.ticketdaata.ticketservice.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TicketPage {
+    private List<TicketResponse> items;
+    private String nextCursor; // Opaque continuation token, null on the last page
+    private boolean hasMore;
+}
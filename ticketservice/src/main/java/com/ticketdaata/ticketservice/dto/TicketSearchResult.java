@@ -0,0 +1,14 @@
+package com.ticketdaata.ticketservice.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TicketSearchResult {
+    private List<TicketResponse> items;
+    private int total; // Total number of matches across all pages
+}
@@ -0,0 +1,17 @@
+package com.ticketdaata.ticketservice.dto;
+
+import lombok.*;
+
+/**
+ * One entry of the live availability feed: a ticket's status after its latest change.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TicketStatusDelta {
+    private String id;
+    private String eventName; // Null for DELETED
+    private String status; // AVAILABLE, RESERVED, SOLD or DELETED
+    private Long version; // Clients drop deltas older than the version they already show
+}
@@ -4,11 +4,13 @@ import lombok.*;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 
 import java.time.LocalDateTime;
 
 @Document(collection = "tickets")
+@CompoundIndex(name = "status_eventDate_id", def = "{'status': 1, 'eventDate': 1, '_id': 1}")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -43,6 +45,9 @@ public class Ticket {
     @Indexed
     private Long sellerId;
 
+    /** Order (or anonymous seat-block hold) holding this reserved ticket; an order can only release or buy its own hold */
+    private String holdId;
+
     /** Optimistic locking to avoid double-sell */
     @Version
     private Long version;
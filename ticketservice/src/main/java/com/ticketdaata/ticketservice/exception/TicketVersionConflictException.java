@@ -0,0 +1,12 @@
+package com.ticketdaata.ticketservice.exception;
+
+/**
+ * Thrown when a ticket is in the expected status but its version no longer matches,
+ * i.e. another writer got there first.
+ */
+public class TicketVersionConflictException extends IllegalStateException {
+
+    public TicketVersionConflictException(String message) {
+        super(message);
+    }
+}
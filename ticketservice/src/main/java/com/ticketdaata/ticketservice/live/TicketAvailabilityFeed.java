@@ -0,0 +1,307 @@
+package com.ticketdaata.ticketservice.live;
+
+import com.ticketdaata.ticketservice.dto.TicketResponse;
+import com.ticketdaata.ticketservice.dto.TicketStatusDelta;
+import com.ticketdaata.ticketservice.messaging.dto.TicketSnapshotMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes ticket status changes to browsers over server-sent events, so they need not re-poll the ticket
+ * list. Fed by the ticket change events every state transition publishes, on this replica's own queue, so
+ * a subscriber sees every change whichever replica made it.
+ * <p>
+ * Each subscriber has a bounded buffer keyed by ticket id: flips of one ticket between two flushes collapse
+ * into its latest status. Every {@code tickets.live.flush-interval-ms} a subscriber's buffer is written as
+ * one {@code tickets} event holding a JSON array of {@link TicketStatusDelta}s, on a sender pool with
+ * at most one write in flight per subscriber. A subscriber whose buffer outgrows
+ * {@code tickets.live.max-pending} tickets, or whose write has not finished within
+ * {@code tickets.live.send-timeout-ms}, is evicted: it gets an {@code evicted} event, if it can still be
+ * reached, and is disconnected. Clients load the ticket list, then apply deltas newer than the version
+ * they show; after a reconnect they reload the list.
+ * <p>
+ * Writes are blocking servlet I/O. A write to a client that stopped reading ties up its sender thread
+ * until Tomcat's write timeout ({@code server.tomcat.connection-timeout}) fails it and drops the
+ * connection, so the pool grows from {@code tickets.live.sender-threads} up to
+ * {@code tickets.live.max-sender-threads} rather than queueing other subscribers behind a stalled one.
+ * Once every sender is busy, flushes wait for the next round.
+ * <p>
+ * Metrics: the {@code tickets.live.subscribers} gauge and the {@code tickets.live.coalesced} and
+ * {@code tickets.live.evictions} counters.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TicketAvailabilityFeed {
+
+    private static final String DELETED = "DELETED";
+
+    private final MeterRegistry meterRegistry;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Set<Subscriber> everyEvent = ConcurrentHashMap.newKeySet();
+    private final Map<String, Set<Subscriber>> byEvent = new ConcurrentHashMap<>();
+
+    @Value("${tickets.live.flush-interval-ms:100}")
+    private long flushIntervalMs;
+
+    @Value("${tickets.live.max-pending:1000}")
+    private int maxPending;
+
+    @Value("${tickets.live.send-timeout-ms:5000}")
+    private long sendTimeoutMs;
+
+    @Value("${tickets.live.heartbeat-seconds:15}")
+    private long heartbeatSeconds;
+
+    @Value("${tickets.live.sender-threads:4}")
+    private int senderThreads;
+
+    @Value("${tickets.live.max-sender-threads:256}")
+    private int maxSenderThreads;
+
+    @Value("${tickets.live.timeout-minutes:30}")
+    private long timeoutMinutes;
+
+    private ScheduledExecutorService flusher;
+    private ThreadPoolExecutor senders;
+    private Counter coalesced;
+    private Counter evictions;
+
+    @PostConstruct
+    public void start() {
+        coalesced = meterRegistry.counter("tickets.live.coalesced");
+        evictions = meterRegistry.counter("tickets.live.evictions");
+        Gauge.builder("tickets.live.subscribers", subscribers, Set::size).register(meterRegistry);
+
+        AtomicInteger senderIds = new AtomicInteger();
+        // No queue: a write goes to an idle or new sender, or is rejected and retried at the next flush
+        senders = new ThreadPoolExecutor(senderThreads, Math.max(senderThreads, maxSenderThreads), 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), runnable -> daemon(runnable, "ticket-live-send-" + senderIds.incrementAndGet()));
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "ticket-live-flush"));
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Live ticket feed started: flush every {}ms, at most {} pending tickets per subscriber",
+                flushIntervalMs, maxPending);
+    }
+
+    @PreDestroy
+    public void stop() {
+        flusher.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    /**
+     * @param eventName only stream this event's tickets; null or blank streams every ticket
+     */
+    public SseEmitter subscribe(String eventName) {
+        SseEmitter emitter = newEmitter(TimeUnit.MINUTES.toMillis(timeoutMinutes));
+        Subscriber subscriber = new Subscriber(emitter, eventName == null || eventName.isBlank() ? null : eventName);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+
+        subscribers.add(subscriber);
+        if (subscriber.eventName == null) {
+            everyEvent.add(subscriber);
+        } else {
+            byEvent.computeIfAbsent(subscriber.eventName, name -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+        return emitter;
+    }
+
+    SseEmitter newEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    /**
+     * Buffers a ticket change for the subscribers that want it. Never blocks on a subscriber's connection.
+     */
+    public void handleTicketSnapshot(TicketSnapshotMessage message) {
+        switch (message.getEventType()) {
+            case "TICKET_CHANGED":
+                TicketResponse ticket = message.getTicket();
+                TicketStatusDelta changed = new TicketStatusDelta(ticket.getId(), ticket.getEventName(),
+                        ticket.getStatus().name(), ticket.getVersion());
+                everyEvent.forEach(subscriber -> subscriber.offer(changed));
+                Set<Subscriber> eventSubscribers = byEvent.get(ticket.getEventName());
+                if (eventSubscribers != null) {
+                    eventSubscribers.forEach(subscriber -> subscriber.offer(changed));
+                }
+                break;
+            case "TICKET_DELETED":
+                // The event name is gone with the ticket; deletes are rare enough to send to everyone
+                TicketStatusDelta deleted = new TicketStatusDelta(message.getTicketId(), null, DELETED, message.getVersion());
+                subscribers.forEach(subscriber -> subscriber.offer(deleted));
+                break;
+            default:
+                log.warn("Unknown ticket snapshot event type: {}", message.getEventType());
+        }
+    }
+
+    private void flush() {
+        long now = System.nanoTime();
+        long sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        long heartbeatNanos = TimeUnit.SECONDS.toNanos(heartbeatSeconds);
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.sending.get()) {
+                if (now - subscriber.sendStartedNanos > sendTimeoutNanos) {
+                    evict(subscriber, "write not finished after " + sendTimeoutMs + "ms");
+                }
+                continue;
+            }
+            if (subscriber.overflowed) {
+                evict(subscriber, "more than " + maxPending + " tickets pending");
+                continue;
+            }
+            if (!subscriber.pending.isEmpty() || now - subscriber.lastSentNanos > heartbeatNanos) {
+                submit(subscriber);
+            }
+        }
+    }
+
+    /**
+     * Stops buffering for the subscriber; its sender writes the goodbye once any write in flight returns.
+     */
+    private void evict(Subscriber subscriber, String reason) {
+        if (subscriber.evicted) {
+            return;
+        }
+        subscriber.evicted = true;
+        remove(subscriber);
+        evictions.increment();
+        log.debug("Evicted live ticket feed subscriber: {}", reason);
+        submit(subscriber);
+    }
+
+    private void submit(Subscriber subscriber) {
+        if (!subscriber.sending.compareAndSet(false, true)) {
+            return;
+        }
+        subscriber.sendStartedNanos = System.nanoTime();
+        try {
+            senders.execute(() -> send(subscriber));
+        } catch (RejectedExecutionException e) {
+            subscriber.sending.set(false);
+        }
+    }
+
+    private void send(Subscriber subscriber) {
+        SseEmitter emitter = subscriber.emitter;
+        try {
+            if (subscriber.evicted) {
+                subscriber.closed = true;
+                emitter.send(SseEmitter.event().name("evicted").data("Too far behind; reload the tickets and reconnect"));
+                emitter.complete();
+                return;
+            }
+            List<TicketStatusDelta> batch = subscriber.drain();
+            if (batch.isEmpty()) {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            } else {
+                emitter.send(SseEmitter.event().name("tickets").data(batch, MediaType.APPLICATION_JSON));
+            }
+            subscriber.lastSentNanos = System.nanoTime();
+        } catch (Exception e) {
+            // Disconnected or already completed; the container reports the error to onError as well
+            subscriber.closed = true;
+            remove(subscriber);
+        } finally {
+            subscriber.sending.set(false);
+        }
+        if (subscriber.evicted && !subscriber.closed) {
+            // Evicted while this write was in flight, and no longer in the flush rotation
+            submit(subscriber);
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        if (subscriber.eventName == null) {
+            everyEvent.remove(subscriber);
+        } else {
+            byEvent.computeIfPresent(subscriber.eventName, (name, eventSubscribers) -> {
+                eventSubscribers.remove(subscriber);
+                return eventSubscribers.isEmpty() ? null : eventSubscribers;
+            });
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static long versionOf(Long version) {
+        return version != null ? version : -1;
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final String eventName;
+        private final Map<String, TicketStatusDelta> pending = new ConcurrentHashMap<>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile long sendStartedNanos;
+        private volatile long lastSentNanos = System.nanoTime();
+        private volatile boolean overflowed;
+        private volatile boolean evicted;
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter, String eventName) {
+            this.emitter = emitter;
+            this.eventName = eventName;
+        }
+
+        private void offer(TicketStatusDelta delta) {
+            if (overflowed || evicted) {
+                return;
+            }
+            pending.compute(delta.getId(), (id, current) -> {
+                if (current == null) {
+                    return delta;
+                }
+                coalesced.increment();
+                return versionOf(delta.getVersion()) >= versionOf(current.getVersion()) ? delta : current;
+            });
+            if (pending.size() > maxPending) {
+                overflowed = true;
+            }
+        }
+
+        private List<TicketStatusDelta> drain() {
+            List<TicketStatusDelta> batch = new ArrayList<>(pending.size());
+            for (Map.Entry<String, TicketStatusDelta> entry : pending.entrySet()) {
+                // A newer delta that arrived meanwhile stays for the next flush
+                if (pending.remove(entry.getKey(), entry.getValue())) {
+                    batch.add(entry.getValue());
+                }
+            }
+            return batch;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.ticketdaata.ticketservice.messaging.config;
+
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Base64UrlNamingStrategy;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exchanges, queues and bindings of the messaging topology. Declared in every messaging mode: RabbitMQ
+ * creates them on the broker, and the in-memory broker compiles its routing table from the same beans.
+ */
+@Configuration
+public class MessagingTopologyConfig {
+
+    // Exchanges
+    @Bean
+    public TopicExchange ticketExchange() {
+        return new TopicExchange(RabbitMQConfig.TICKET_EXCHANGE);
+    }
+
+    @Bean
+    public TopicExchange orderExchange() {
+        return new TopicExchange(RabbitMQConfig.ORDER_EXCHANGE);
+    }
+
+    // Queues for Ticket Service to process
+    @Bean
+    public Queue ticketReservationQueue() {
+        return QueueBuilder.durable(RabbitMQConfig.TICKET_RESERVATION_QUEUE).build();
+    }
+
+    /**
+     * One queue per ticket partition, bound to the partitioned reserve, release and sold routing keys.
+     * Single active consumer keeps each partition ordered when several Ticket Service replicas listen.
+     */
+    @Bean
+    public Declarables ticketReservationPartitions(TicketPartitioning ticketPartitioning) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (int partition = 0; partition < ticketPartitioning.count(); partition++) {
+            Queue queue = QueueBuilder.durable(TicketPartitioning.queueName(partition))
+                    .singleActiveConsumer()
+                    .build();
+            declarables.add(queue);
+            for (String routingKey : List.of(RabbitMQConfig.TICKET_RESERVE_ROUTING_KEY,
+                    RabbitMQConfig.TICKET_RELEASE_ROUTING_KEY, RabbitMQConfig.TICKET_SOLD_ROUTING_KEY)) {
+                declarables.add(BindingBuilder.bind(queue)
+                        .to(ticketExchange())
+                        .with(TicketPartitioning.partitionRoutingKey(routingKey, partition)));
+            }
+        }
+        return new Declarables(declarables);
+    }
+
+    @Bean
+    public Queue orderStatusQueue() {
+        return QueueBuilder.durable(RabbitMQConfig.ORDER_STATUS_QUEUE).build();
+    }
+
+    // Queues for publishing ticket status updates
+    @Bean
+    public Queue ticketStatusUpdateQueue() {
+        return QueueBuilder.durable(RabbitMQConfig.TICKET_STATUS_UPDATE_QUEUE).build();
+    }
+
+    /**
+     * Ticket change events feeding this replica's search index and live availability feed. Every replica
+     * needs all of them, so each one gets its own exclusive, auto-deleted queue instead of sharing a durable one.
+     */
+    @Bean
+    public Queue ticketChangeQueue() {
+        return new AnonymousQueue(new Base64UrlNamingStrategy(RabbitMQConfig.TICKET_CHANGES_QUEUE_PREFIX));
+    }
+
+    // Bindings for Ticket Service; unpartitioned keys from producers that predate the partitions
+    @Bean
+    public Binding ticketReserveBinding() {
+        return BindingBuilder.bind(ticketReservationQueue())
+                .to(ticketExchange())
+                .with(RabbitMQConfig.TICKET_RESERVE_ROUTING_KEY);
+    }
+
+    @Bean
+    public Binding ticketReleaseBinding() {
+        return BindingBuilder.bind(ticketReservationQueue())
+                .to(ticketExchange())
+                .with(RabbitMQConfig.TICKET_RELEASE_ROUTING_KEY);
+    }
+
+    @Bean
+    public Binding ticketSoldBinding() {
+        return BindingBuilder.bind(ticketReservationQueue())
+                .to(ticketExchange())
+                .with(RabbitMQConfig.TICKET_SOLD_ROUTING_KEY);
+    }
+
+    @Bean
+    public Binding orderStatusBinding() {
+        return BindingBuilder.bind(orderStatusQueue())
+                .to(orderExchange())
+                .with(RabbitMQConfig.ORDER_CREATED_ROUTING_KEY);
+    }
+
+    @Bean
+    public Binding orderCompletedBinding() {
+        return BindingBuilder.bind(orderStatusQueue())
+                .to(orderExchange())
+                .with(RabbitMQConfig.ORDER_COMPLETED_ROUTING_KEY);
+    }
+
+    @Bean
+    public Binding orderCancelledBinding() {
+        return BindingBuilder.bind(orderStatusQueue())
+                .to(orderExchange())
+                .with(RabbitMQConfig.ORDER_CANCELLED_ROUTING_KEY);
+    }
+
+    @Bean
+    public Binding orderExpiredBinding() {
+        return BindingBuilder.bind(orderStatusQueue())
+                .to(orderExchange())
+                .with(RabbitMQConfig.ORDER_EXPIRED_ROUTING_KEY);
+    }
+
+    @Bean
+    public Binding ticketChangeBinding() {
+        return BindingBuilder.bind(ticketChangeQueue())
+                .to(ticketExchange())
+                .with(RabbitMQConfig.TICKET_CHANGED_ROUTING_KEY);
+    }
+
+    // Binding for ticket status updates
+    @Bean
+    public Binding ticketStatusUpdateBinding() {
+        return BindingBuilder.bind(ticketStatusUpdateQueue())
+                .to(ticketExchange())
+                .with(RabbitMQConfig.TICKET_STATUS_UPDATE_ROUTING_KEY);
+    }
+}
@@ -1,14 +1,12 @@
 package com.ticketdaata.ticketservice.messaging.config;
 
-import org.springframework.amqp.core.Binding;
-import org.springframework.amqp.core.BindingBuilder;
-import org.springframework.amqp.core.Queue;
-import org.springframework.amqp.core.QueueBuilder;
-import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -24,6 +22,7 @@ public class RabbitMQConfig {
     // Queue names for Ticket Service
     public static final String TICKET_RESERVATION_QUEUE = "ticket.reservation.queue";
     public static final String TICKET_STATUS_UPDATE_QUEUE = "ticket.status.update.queue";
+    public static final String TICKET_CHANGES_QUEUE_PREFIX = "ticket.changes."; // One anonymous queue per replica
     
     // Queue names for Order Service (to receive messages)
     public static final String ORDER_STATUS_QUEUE = "order.status.queue";
@@ -34,6 +33,7 @@ public class RabbitMQConfig {
     public static final String TICKET_RELEASE_ROUTING_KEY = "ticket.release";
     public static final String TICKET_SOLD_ROUTING_KEY = "ticket.sold";
     public static final String TICKET_STATUS_UPDATE_ROUTING_KEY = "ticket.status.update";
+    public static final String TICKET_CHANGED_ROUTING_KEY = "ticket.changed";
     
     public static final String ORDER_CREATED_ROUTING_KEY = "order.created";
     public static final String ORDER_COMPLETED_ROUTING_KEY = "order.completed";
@@ -51,92 +51,24 @@ public class RabbitMQConfig {
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
         rabbitTemplate.setMessageConverter(jsonMessageConverter());
+        // Unroutable messages come back instead of vanishing; see RabbitPublishPipeline
+        rabbitTemplate.setMandatory(true);
         return rabbitTemplate;
     }
 
-    // Exchanges
+    /**
+     * Containers of the ticket partition queues: the usual listener settings, but exactly one consumer
+     * per partition so its messages stay ordered, and a prefetch of its own.
+     */
     @Bean
-    public TopicExchange ticketExchange() {
-        return new TopicExchange(TICKET_EXCHANGE);
+    public SimpleRabbitListenerContainerFactory ticketPartitionContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            @Value("${messaging.ticket-partitions.prefetch:50}") int prefetch) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setConcurrentConsumers(1);
+        factory.setMaxConcurrentConsumers(1);
+        factory.setPrefetchCount(prefetch);
+        return factory;
     }
-
-    @Bean
-    public TopicExchange orderExchange() {
-        return new TopicExchange(ORDER_EXCHANGE);
-    }
-
-    // Queues for Ticket Service to process
-    @Bean
-    public Queue ticketReservationQueue() {
-        return QueueBuilder.durable(TICKET_RESERVATION_QUEUE).build();
-    }
-
-    @Bean
-    public Queue orderStatusQueue() {
-        return QueueBuilder.durable(ORDER_STATUS_QUEUE).build();
-    }
-
-    // Queues for publishing ticket status updates
-    @Bean
-    public Queue ticketStatusUpdateQueue() {
-        return QueueBuilder.durable(TICKET_STATUS_UPDATE_QUEUE).build();
-    }
-
-    // Bindings for Ticket Service
-    @Bean
-    public Binding ticketReserveBinding() {
-        return BindingBuilder.bind(ticketReservationQueue())
-                .to(ticketExchange())
-                .with(TICKET_RESERVE_ROUTING_KEY);
-    }
-
-    @Bean
-    public Binding ticketReleaseBinding() {
-        return BindingBuilder.bind(ticketReservationQueue())
-                .to(ticketExchange())
-                .with(TICKET_RELEASE_ROUTING_KEY);
-    }
-
-    @Bean
-    public Binding ticketSoldBinding() {
-        return BindingBuilder.bind(ticketReservationQueue())
-                .to(ticketExchange())
-                .with(TICKET_SOLD_ROUTING_KEY);
-    }
-
-    @Bean
-    public Binding orderStatusBinding() {
-        return BindingBuilder.bind(orderStatusQueue())
-                .to(orderExchange())
-                .with(ORDER_CREATED_ROUTING_KEY);
-    }
-
-    @Bean
-    public Binding orderCompletedBinding() {
-        return BindingBuilder.bind(orderStatusQueue())
-                .to(orderExchange())
-                .with(ORDER_COMPLETED_ROUTING_KEY);
-    }
-
-    @Bean
-    public Binding orderCancelledBinding() {
-        return BindingBuilder.bind(orderStatusQueue())
-                .to(orderExchange())
-                .with(ORDER_CANCELLED_ROUTING_KEY);
-    }
-
-    @Bean
-    public Binding orderExpiredBinding() {
-        return BindingBuilder.bind(orderStatusQueue())
-                .to(orderExchange())
-                .with(ORDER_EXPIRED_ROUTING_KEY);
-    }
-
-    // Binding for ticket status updates
-    @Bean
-    public Binding ticketStatusUpdateBinding() {
-        return BindingBuilder.bind(ticketStatusUpdateQueue())
-                .to(ticketExchange())
-                .with(TICKET_STATUS_UPDATE_ROUTING_KEY);
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,81 @@
+package com.ticketdaata.ticketservice.messaging.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Splits ticket reservation traffic over {@code messaging.ticket-partitions.count} queues so the Ticket
+ * Service works on different tickets in parallel. A message goes to the partition picked by a jump
+ * consistent hash of its partition key, the order's (first) ticket id, through a routing key with the
+ * partition number appended. Every message about one order therefore lands on the same single-consumer
+ * queue and is processed in send order, and growing the partition count moves as few tickets as possible.
+ * <p>
+ * Ordering is per order, not per ticket. A seat-block order routes the release or sale of each of its
+ * tickets by its first ticket, so none of them can overtake the block reservation, but messages of two
+ * orders touching the same ticket may sit on different partitions. Those are kept apart by the ticket's
+ * version check and hold id, not by queue order.
+ * <p>
+ * The count must match in the Orders Service and the Ticket Service.
+ */
+@Component
+public class TicketPartitioning {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    @Value("${messaging.ticket-partitions.count:4}")
+    private int count;
+
+    public int count() {
+        return count;
+    }
+
+    /**
+     * @return the partition of {@code partitionKey}; messages without a key go to partition 0
+     */
+    public int partitionOf(String partitionKey) {
+        if (partitionKey == null) {
+            return 0;
+        }
+        return jumpConsistentHash(fnv1a(partitionKey), count);
+    }
+
+    /**
+     * @return {@code baseRoutingKey} with the partition of {@code partitionKey} appended
+     */
+    public String routingKey(String baseRoutingKey, String partitionKey) {
+        return partitionRoutingKey(baseRoutingKey, partitionOf(partitionKey));
+    }
+
+    public static String partitionRoutingKey(String baseRoutingKey, int partition) {
+        return baseRoutingKey + "." + partition;
+    }
+
+    public static String queueName(int partition) {
+        return RabbitMQConfig.TICKET_RESERVATION_QUEUE + "." + partition;
+    }
+
+    // FNV-1a over the UTF-8 bytes: unlike String.hashCode it spreads the 64-bit range jump hash expects
+    private static long fnv1a(String key) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    // Lamping and Veach, "A Fast, Minimal Memory, Consistent Hash Algorithm"
+    private static int jumpConsistentHash(long key, int buckets) {
+        long bucket = -1;
+        long next = 0;
+        while (next < buckets) {
+            bucket = next;
+            key = key * 2862933555777941757L + 1;
+            next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) bucket;
+    }
+}
@@ -12,11 +12,13 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class TicketStatusUpdateMessage {
+    private String messageId; // Unique per publish; consumers skip ids they already processed
     private String ticketId;
     private String orderId;
     private String status; // AVAILABLE, RESERVED, SOLD
     private String previousStatus;
     private String userId;
     private LocalDateTime timestamp;
-    private String eventType; // TICKET_RESERVED, TICKET_RELEASED, TICKET_SOLD
+    private String eventType; // TICKET_RESERVED, TICKET_RESERVATION_FAILED, TICKET_RELEASED, TICKET_SOLD
+    private String reason; // Why a reservation failed (TICKET_RESERVATION_FAILED)
 }
\ No newline at end of file
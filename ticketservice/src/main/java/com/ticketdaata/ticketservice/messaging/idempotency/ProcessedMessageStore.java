@@ -0,0 +1,96 @@
+package com.ticketdaata.ticketservice.messaging.idempotency;
+
+import com.ticketdaata.ticketservice.entity.ProcessedMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Idempotency store for message consumers. Before its handler runs, a message id is claimed in the
+ * {@code processed_messages} TTL collection with a single upsert that only matches a claim whose lease has
+ * run out; a duplicate key means the message is done or another consumer holds a live claim, so the
+ * delivery is skipped. A finished handler marks its claim done; a failed one removes it, so the redelivery
+ * is processed. A consumer that dies mid-handler leaves a claim that the next redelivery takes over once
+ * the lease has expired. Finished ids also go into an in-memory {@link DedupWindow}, which is checked first,
+ * so redeliveries inside the window never reach Mongo. Skipped duplicates are counted as
+ * {@code messaging.consume.duplicates}.
+ */
+@Slf4j
+@Component
+public class ProcessedMessageStore {
+
+    private final MongoTemplate mongoTemplate;
+    private final DedupWindow recent;
+    private final Duration lease;
+    private final Counter duplicates;
+
+    public ProcessedMessageStore(MongoTemplate mongoTemplate, MeterRegistry meterRegistry,
+                                 @Value("${messaging.idempotency.window-minutes:10}") long windowMinutes,
+                                 @Value("${messaging.idempotency.buckets:10}") int buckets,
+                                 @Value("${messaging.idempotency.max-entries:100000}") int maxEntries,
+                                 @Value("${messaging.idempotency.lease-seconds:300}") long leaseSeconds) {
+        this.mongoTemplate = mongoTemplate;
+        this.recent = new DedupWindow(Duration.ofMinutes(windowMinutes).toMillis(), buckets, maxEntries);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.duplicates = meterRegistry.counter("messaging.consume.duplicates");
+    }
+
+    /**
+     * Runs {@code handler} unless the message was already processed or is being processed. Messages
+     * without an id are always processed.
+     */
+    public void processOnce(String messageId, Runnable handler) {
+        if (messageId == null) {
+            handler.run();
+            return;
+        }
+        if (recent.contains(messageId) || !claim(messageId)) {
+            duplicates.increment();
+            log.info("Skipping already processed message: {}", messageId);
+            return;
+        }
+
+        try {
+            handler.run();
+        } catch (RuntimeException e) {
+            mongoTemplate.remove(byId(messageId), ProcessedMessage.class);
+            throw e;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        mongoTemplate.updateFirst(byId(messageId), new Update()
+                .set("status", ProcessedMessage.Status.DONE)
+                .set("processedAt", now), ProcessedMessage.class);
+        recent.add(messageId);
+    }
+
+    // Inserts a fresh claim or takes over an expired one; anything else collides on the id
+    private boolean claim(String messageId) {
+        LocalDateTime now = LocalDateTime.now();
+        Query expiredClaim = Query.query(Criteria.where("_id").is(messageId)
+                .and("status").is(ProcessedMessage.Status.CLAIMED)
+                .and("claimedAt").lt(now.minus(lease)));
+        try {
+            mongoTemplate.upsert(expiredClaim, new Update()
+                    .set("status", ProcessedMessage.Status.CLAIMED)
+                    .set("claimedAt", now)
+                    .set("processedAt", now), ProcessedMessage.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private static Query byId(String messageId) {
+        return Query.query(Criteria.where("_id").is(messageId));
+    }
+}
@@ -0,0 +1,30 @@
+package com.ticketdaata.ticketservice.messaging.listener;
+
+import com.ticketdaata.ticketservice.config.InMemoryMessageBroker;
+import com.ticketdaata.ticketservice.messaging.dto.TicketSnapshotMessage;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory counterpart of {@link TicketChangeListener}: consumes this replica's ticket change queue of
+ * the in-memory broker on that queue's drain thread.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "messaging.mode", havingValue = "inmemory", matchIfMissing = true)
+public class InMemoryTicketChangeListener {
+
+    private final InMemoryMessageBroker broker;
+    private final TicketChangeHandler ticketChangeHandler;
+
+    @Value("#{ticketChangeQueue.name}")
+    private String queueName;
+
+    @PostConstruct
+    public void register() {
+        broker.registerListener(queueName, TicketSnapshotMessage.class, ticketChangeHandler::handleTicketSnapshot);
+    }
+}
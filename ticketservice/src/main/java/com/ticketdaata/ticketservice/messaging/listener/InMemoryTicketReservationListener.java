@@ -0,0 +1,34 @@
+package com.ticketdaata.ticketservice.messaging.listener;
+
+import com.ticketdaata.ticketservice.config.InMemoryMessageBroker;
+import com.ticketdaata.ticketservice.messaging.config.RabbitMQConfig;
+import com.ticketdaata.ticketservice.messaging.config.TicketPartitioning;
+import com.ticketdaata.ticketservice.messaging.dto.TicketReservationMessage;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory counterpart of {@link TicketReservationListener}: consumes every ticket partition queue,
+ * and the unpartitioned reservation queue, on that queue's own drain thread.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "messaging.mode", havingValue = "inmemory", matchIfMissing = true)
+public class InMemoryTicketReservationListener {
+
+    private final InMemoryMessageBroker broker;
+    private final TicketReservationHandler ticketReservationHandler;
+    private final TicketPartitioning ticketPartitioning;
+
+    @PostConstruct
+    public void register() {
+        broker.registerListener(RabbitMQConfig.TICKET_RESERVATION_QUEUE, TicketReservationMessage.class,
+                ticketReservationHandler::handleTicketReservation);
+        for (int partition = 0; partition < ticketPartitioning.count(); partition++) {
+            broker.registerListener(TicketPartitioning.queueName(partition), TicketReservationMessage.class,
+                    ticketReservationHandler::handleTicketReservation);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.ticketdaata.ticketservice.messaging.listener;
+
+import com.ticketdaata.ticketservice.cache.TicketCache;
+import com.ticketdaata.ticketservice.live.TicketAvailabilityFeed;
+import com.ticketdaata.ticketservice.messaging.dto.TicketSnapshotMessage;
+import com.ticketdaata.ticketservice.search.TicketSearchIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies ticket changes made by any replica, this one included, to this replica's local read state,
+ * whichever transport delivered them. Every consumer ignores changes older than what it holds.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TicketChangeHandler {
+
+    private final TicketSearchIndex ticketSearchIndex;
+    private final TicketCache ticketCache;
+    private final TicketAvailabilityFeed ticketAvailabilityFeed;
+
+    public void handleTicketSnapshot(TicketSnapshotMessage message) {
+        switch (message.getEventType()) {
+            case "TICKET_CHANGED":
+                ticketCache.applyChange(message.getTicket());
+                ticketSearchIndex.index(message.getTicket());
+                break;
+            case "TICKET_DELETED":
+                ticketCache.invalidate(message.getTicketId(),
+                        message.getVersion() != null ? message.getVersion() : Long.MAX_VALUE);
+                ticketSearchIndex.remove(message.getTicketId(), message.getVersion());
+                break;
+            default:
+                log.warn("Unknown ticket snapshot event type: {}", message.getEventType());
+                return;
+        }
+        ticketAvailabilityFeed.handleTicketSnapshot(message);
+    }
+}
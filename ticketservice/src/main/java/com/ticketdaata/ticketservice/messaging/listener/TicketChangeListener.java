@@ -0,0 +1,20 @@
+package com.ticketdaata.ticketservice.messaging.listener;
+
+import com.ticketdaata.ticketservice.messaging.dto.TicketSnapshotMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "messaging.mode", havingValue = "rabbitmq")
+public class TicketChangeListener {
+
+    private final TicketChangeHandler ticketChangeHandler;
+
+    @RabbitListener(queues = "#{ticketChangeQueue.name}")
+    public void handleTicketSnapshot(TicketSnapshotMessage message) {
+        ticketChangeHandler.handleTicketSnapshot(message);
+    }
+}
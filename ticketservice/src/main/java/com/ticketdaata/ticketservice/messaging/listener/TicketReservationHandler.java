@@ -0,0 +1,117 @@
+package com.ticketdaata.ticketservice.messaging.listener;
+
+import com.ticketdaata.ticketservice.messaging.dto.TicketReservationMessage;
+import com.ticketdaata.ticketservice.messaging.idempotency.ProcessedMessageStore;
+import com.ticketdaata.ticketservice.messaging.publisher.TicketEventPublisherInterface;
+import com.ticketdaata.ticketservice.service.TicketService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies ticket reservation requests from the orders service, whichever transport delivered them.
+ * Tickets are held by the requesting order, so a release or sale only applies to that order's hold.
+ * Unexpected failures propagate, so the transport retries the message and dead-letters it in the end.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TicketReservationHandler {
+
+    private final TicketService ticketService;
+    private final TicketEventPublisherInterface ticketEventPublisher;
+    private final ProcessedMessageStore processedMessages;
+
+    public void handleTicketReservation(TicketReservationMessage message) {
+        log.info("Received ticket reservation message: {}", message);
+
+        processedMessages.processOnce(message.getMessageId(), () -> dispatch(message));
+    }
+
+    private void dispatch(TicketReservationMessage message) {
+        switch (message.getEventType()) {
+            case "RESERVE_TICKET":
+                handleReserveTicket(message);
+                break;
+            case "RESERVE_TICKETS":
+                handleReserveTicketBlock(message);
+                break;
+            case "RELEASE_TICKET":
+                handleReleaseTicket(message);
+                break;
+            case "MARK_SOLD":
+                handleMarkTicketSold(message);
+                break;
+            default:
+                log.warn("Unknown event type: {}", message.getEventType());
+        }
+    }
+
+    private void handleReserveTicket(TicketReservationMessage message) {
+        try {
+            ticketService.reserve(message.getTicketId(), message.getVersion(), message.getOrderId());
+            ticketEventPublisher.publishTicketReserved(
+                    message.getTicketId(),
+                    message.getOrderId(),
+                    message.getUserId()
+            );
+            log.info("Successfully reserved ticket: {} for order: {}", message.getTicketId(), message.getOrderId());
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            // The ticket cannot be had; tell the orders service so it can cancel the order
+            log.error("Failed to reserve ticket {}: {}", message.getTicketId(), e.getMessage());
+            ticketEventPublisher.publishTicketReservationFailed(
+                    message.getTicketId(),
+                    message.getOrderId(),
+                    message.getUserId(),
+                    e.getMessage()
+            );
+        }
+    }
+
+    private void handleReserveTicketBlock(TicketReservationMessage message) {
+        try {
+            ticketService.reserveAll(message.getTicketVersions(), message.getOrderId());
+            message.getTicketVersions().keySet().forEach(ticketId -> ticketEventPublisher.publishTicketReserved(
+                    ticketId,
+                    message.getOrderId(),
+                    message.getUserId()
+            ));
+            log.info("Successfully reserved seat block {} for order: {}",
+                    message.getTicketVersions().keySet(), message.getOrderId());
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            log.error("Failed to reserve seat block {}: {}", message.getTicketVersions(), e.getMessage());
+            ticketEventPublisher.publishTicketReservationFailed(
+                    null,
+                    message.getOrderId(),
+                    message.getUserId(),
+                    e.getMessage()
+            );
+        }
+    }
+
+    private void handleReleaseTicket(TicketReservationMessage message) {
+        try {
+            ticketService.release(message.getTicketId(), message.getOrderId());
+            ticketEventPublisher.publishTicketReleased(
+                    message.getTicketId(),
+                    message.getOrderId(),
+                    message.getUserId()
+            );
+            log.info("Successfully released ticket: {} for order: {}", message.getTicketId(), message.getOrderId());
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            // The order's reservation failed or was never made, so there is nothing of its own to release
+            log.info("Nothing to release for ticket {} and order {}: {}",
+                    message.getTicketId(), message.getOrderId(), e.getMessage());
+        }
+    }
+
+    private void handleMarkTicketSold(TicketReservationMessage message) {
+        ticketService.markSold(message.getTicketId(), message.getOrderId());
+        ticketEventPublisher.publishTicketSold(
+                message.getTicketId(),
+                message.getOrderId(),
+                message.getUserId()
+        );
+        log.info("Successfully marked ticket sold: {} for order: {}", message.getTicketId(), message.getOrderId());
+    }
+}
\ No newline at end of file
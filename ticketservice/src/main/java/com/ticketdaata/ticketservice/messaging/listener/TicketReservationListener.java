@@ -1,90 +1,62 @@
 package com.ticketdaata.ticketservice.messaging.listener;
 
+import com.ticketdaata.ticketservice.messaging.config.TicketPartitioning;
 import com.ticketdaata.ticketservice.messaging.dto.TicketReservationMessage;
-import com.ticketdaata.ticketservice.messaging.publisher.TicketEventPublisher;
-import com.ticketdaata.ticketservice.service.TicketService;
-import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.annotation.RabbitListenerConfigurer;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistrar;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
-@Slf4j
+/**
+ * Consumes ticket reservation traffic: one single-consumer container per ticket partition queue, so
+ * different tickets are handled in parallel and one ticket's messages in order, plus the unpartitioned
+ * queue for messages from producers that predate the partitions.
+ */
 @Component
-@RequiredArgsConstructor
 @ConditionalOnProperty(name = "messaging.mode", havingValue = "rabbitmq")
-public class TicketReservationListener {
-
-    private final TicketService ticketService;
-    private final TicketEventPublisher ticketEventPublisher;
-
-    @RabbitListener(queues = "ticket.reservation.queue")
-    public void handleTicketReservation(TicketReservationMessage message) {
-        log.info("Received ticket reservation message: {}", message);
-
-        try {
-            switch (message.getEventType()) {
-                case "RESERVE_TICKET":
-                    handleReserveTicket(message);
-                    break;
-                case "RELEASE_TICKET":
-                    handleReleaseTicket(message);
-                    break;
-                case "MARK_SOLD":
-                    handleMarkTicketSold(message);
-                    break;
-                default:
-                    log.warn("Unknown event type: {}", message.getEventType());
-            }
-        } catch (Exception e) {
-            log.error("Failed to process ticket reservation message: {}", e.getMessage(), e);
-            // In a production system, you might want to send to a dead letter queue
-        }
+public class TicketReservationListener implements RabbitListenerConfigurer {
+
+    private final TicketReservationHandler ticketReservationHandler;
+    private final TicketPartitioning ticketPartitioning;
+    private final SimpleRabbitListenerContainerFactory partitionContainerFactory;
+    private final MessageConverter messageConverter;
+
+    public TicketReservationListener(TicketReservationHandler ticketReservationHandler,
+                                     TicketPartitioning ticketPartitioning,
+                                     @Qualifier("ticketPartitionContainerFactory")
+                                     SimpleRabbitListenerContainerFactory partitionContainerFactory,
+                                     MessageConverter messageConverter) {
+        this.ticketReservationHandler = ticketReservationHandler;
+        this.ticketPartitioning = ticketPartitioning;
+        this.partitionContainerFactory = partitionContainerFactory;
+        this.messageConverter = messageConverter;
     }
 
-    private void handleReserveTicket(TicketReservationMessage message) {
-        try {
-            ticketService.reserve(message.getTicketId(), message.getVersion());
-            ticketEventPublisher.publishTicketReserved(
-                    message.getTicketId(),
-                    message.getOrderId(),
-                    message.getUserId()
-            );
-            log.info("Successfully reserved ticket: {} for order: {}", message.getTicketId(), message.getOrderId());
-        } catch (Exception e) {
-            log.error("Failed to reserve ticket {}: {}", message.getTicketId(), e.getMessage());
-            // You could publish a ticket reservation failed event here
-            throw e;
+    @Override
+    public void configureRabbitListeners(RabbitListenerEndpointRegistrar registrar) {
+        for (int partition = 0; partition < ticketPartitioning.count(); partition++) {
+            SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+            endpoint.setId("ticket-reservation-" + partition);
+            endpoint.setQueueNames(TicketPartitioning.queueName(partition));
+            endpoint.setMessageListener(message -> handleTicketReservation(toReservationMessage(message)));
+            registrar.registerEndpoint(endpoint, partitionContainerFactory);
         }
     }
 
-    private void handleReleaseTicket(TicketReservationMessage message) {
-        try {
-            ticketService.release(message.getTicketId());
-            ticketEventPublisher.publishTicketReleased(
-                    message.getTicketId(),
-                    message.getOrderId(),
-                    message.getUserId()
-            );
-            log.info("Successfully released ticket: {} for order: {}", message.getTicketId(), message.getOrderId());
-        } catch (Exception e) {
-            log.error("Failed to release ticket {}: {}", message.getTicketId(), e.getMessage());
-            // Continue processing as release failures are less critical
-        }
+    @RabbitListener(queues = "ticket.reservation.queue")
+    public void handleTicketReservation(TicketReservationMessage message) {
+        ticketReservationHandler.handleTicketReservation(message);
     }
 
-    private void handleMarkTicketSold(TicketReservationMessage message) {
-        try {
-            ticketService.markSold(message.getTicketId());
-            ticketEventPublisher.publishTicketSold(
-                    message.getTicketId(),
-                    message.getOrderId(),
-                    message.getUserId()
-            );
-            log.info("Successfully marked ticket sold: {} for order: {}", message.getTicketId(), message.getOrderId());
-        } catch (Exception e) {
-            log.error("Failed to mark ticket sold {}: {}", message.getTicketId(), e.getMessage());
-            throw e;
-        }
+    // The type header names the Orders Service class, so convert to the local DTO like @RabbitListener does
+    private TicketReservationMessage toReservationMessage(Message message) {
+        message.getMessageProperties().setInferredArgumentType(TicketReservationMessage.class);
+        return (TicketReservationMessage) messageConverter.fromMessage(message);
     }
-}
\ No newline at end of file
+}
@@ -1,26 +1,139 @@
 package com.ticketdaata.ticketservice.messaging.publisher;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import com.ticketdaata.ticketservice.config.InMemoryMessageBroker;
+import com.ticketdaata.ticketservice.dto.TicketResponse;
+import com.ticketdaata.ticketservice.messaging.config.RabbitMQConfig;
+import com.ticketdaata.ticketservice.messaging.dto.TicketSnapshotMessage;
+import com.ticketdaata.ticketservice.messaging.dto.TicketStatusUpdateMessage;
+
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 @Component
+@RequiredArgsConstructor
 @ConditionalOnProperty(name = "messaging.mode", havingValue = "inmemory", matchIfMissing = true)
 public class InMemoryTicketEventPublisher implements TicketEventPublisherInterface {
 
+    private final InMemoryMessageBroker.InMemoryRabbitTemplate rabbitTemplate;
+
     public void publishTicketReserved(String ticketId, String orderId, String userId) {
+        TicketStatusUpdateMessage message = TicketStatusUpdateMessage.builder()
+                .messageId(UUID.randomUUID().toString())
+                .ticketId(ticketId)
+                .orderId(orderId)
+                .status("RESERVED")
+                .previousStatus("AVAILABLE")
+                .userId(userId)
+                .timestamp(LocalDateTime.now())
+                .eventType("TICKET_RESERVED")
+                .build();
+
+        publishTicketStatusUpdate(message);
         log.info("📤 [InMemory] Published ticket reserved event for ticket: {}, order: {}", ticketId, orderId);
     }
 
+    public void publishTicketReservationFailed(String ticketId, String orderId, String userId, String reason) {
+        TicketStatusUpdateMessage message = TicketStatusUpdateMessage.builder()
+                .messageId(UUID.randomUUID().toString())
+                .ticketId(ticketId)
+                .orderId(orderId)
+                .userId(userId)
+                .timestamp(LocalDateTime.now())
+                .eventType("TICKET_RESERVATION_FAILED")
+                .reason(reason)
+                .build();
+
+        publishTicketStatusUpdate(message);
+        log.info("📤 [InMemory] Published ticket reservation failed event for ticket: {}, order: {}, reason: {}", ticketId, orderId, reason);
+    }
+
     public void publishTicketReleased(String ticketId, String orderId, String userId) {
+        TicketStatusUpdateMessage message = TicketStatusUpdateMessage.builder()
+                .messageId(UUID.randomUUID().toString())
+                .ticketId(ticketId)
+                .orderId(orderId)
+                .status("AVAILABLE")
+                .previousStatus("RESERVED")
+                .userId(userId)
+                .timestamp(LocalDateTime.now())
+                .eventType("TICKET_RELEASED")
+                .build();
+
+        publishTicketStatusUpdate(message);
         log.info("📤 [InMemory] Published ticket released event for ticket: {}, order: {}", ticketId, orderId);
     }
 
     public void publishTicketSold(String ticketId, String orderId, String userId) {
+        TicketStatusUpdateMessage message = TicketStatusUpdateMessage.builder()
+                .messageId(UUID.randomUUID().toString())
+                .ticketId(ticketId)
+                .orderId(orderId)
+                .status("SOLD")
+                .previousStatus("RESERVED")
+                .userId(userId)
+                .timestamp(LocalDateTime.now())
+                .eventType("TICKET_SOLD")
+                .build();
+
+        publishTicketStatusUpdate(message);
         log.info("📤 [InMemory] Published ticket sold event for ticket: {}, order: {}", ticketId, orderId);
     }
-}
\ No newline at end of file
+
+    public void publishTicketChanged(TicketResponse ticket) {
+        TicketSnapshotMessage message = TicketSnapshotMessage.builder()
+                .messageId(UUID.randomUUID().toString())
+                .ticketId(ticket.getId())
+                .ticket(ticket)
+                .version(ticket.getVersion())
+                .timestamp(LocalDateTime.now())
+                .eventType("TICKET_CHANGED")
+                .build();
+
+        publishTicketSnapshot(message);
+        log.debug("📤 [InMemory] Published ticket changed event for ticket: {}, version: {}", ticket.getId(), ticket.getVersion());
+    }
+
+    public void publishTicketDeleted(String ticketId, Long version) {
+        TicketSnapshotMessage message = TicketSnapshotMessage.builder()
+                .messageId(UUID.randomUUID().toString())
+                .ticketId(ticketId)
+                .version(version)
+                .timestamp(LocalDateTime.now())
+                .eventType("TICKET_DELETED")
+                .build();
+
+        publishTicketSnapshot(message);
+        log.info("📤 [InMemory] Published ticket deleted event for ticket: {}", ticketId);
+    }
+
+    private void publishTicketStatusUpdate(TicketStatusUpdateMessage message) {
+        try {
+            rabbitTemplate.convertAndSend(
+                    RabbitMQConfig.TICKET_EXCHANGE,
+                    RabbitMQConfig.TICKET_STATUS_UPDATE_ROUTING_KEY,
+                    message
+            );
+        } catch (Exception e) {
+            log.error("❌ [InMemory] Failed to publish ticket status update: {}", e.getMessage(), e);
+        }
+    }
+
+    private void publishTicketSnapshot(TicketSnapshotMessage message) {
+        try {
+            rabbitTemplate.convertAndSend(
+                    RabbitMQConfig.TICKET_EXCHANGE,
+                    RabbitMQConfig.TICKET_CHANGED_ROUTING_KEY,
+                    message
+            );
+        } catch (Exception e) {
+            log.error("❌ [InMemory] Failed to publish ticket snapshot: {}", e.getMessage(), e);
+        }
+    }
+}
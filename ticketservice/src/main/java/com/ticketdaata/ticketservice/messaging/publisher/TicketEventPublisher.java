@@ -1,12 +1,14 @@
 package com.ticketdaata.ticketservice.messaging.publisher;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import com.ticketdaata.ticketservice.dto.TicketResponse;
 import com.ticketdaata.ticketservice.messaging.config.RabbitMQConfig;
+import com.ticketdaata.ticketservice.messaging.dto.TicketSnapshotMessage;
 import com.ticketdaata.ticketservice.messaging.dto.TicketStatusUpdateMessage;
 
 import lombok.RequiredArgsConstructor;
@@ -18,10 +20,11 @@ import lombok.extern.slf4j.Slf4j;
 @ConditionalOnProperty(name = "messaging.mode", havingValue = "rabbitmq")
 public class TicketEventPublisher implements TicketEventPublisherInterface {
 
-    private final RabbitTemplate rabbitTemplate;
+    private final RabbitPublishPipeline publishPipeline;
 
     public void publishTicketReserved(String ticketId, String orderId, String userId) {
         TicketStatusUpdateMessage message = TicketStatusUpdateMessage.builder()
+                .messageId(UUID.randomUUID().toString())
                 .ticketId(ticketId)
                 .orderId(orderId)
                 .status("RESERVED")
@@ -35,8 +38,24 @@ public class TicketEventPublisher implements TicketEventPublisherInterface {
         log.info("Published ticket reserved event for ticket: {}, order: {}", ticketId, orderId);
     }
 
+    public void publishTicketReservationFailed(String ticketId, String orderId, String userId, String reason) {
+        TicketStatusUpdateMessage message = TicketStatusUpdateMessage.builder()
+                .messageId(UUID.randomUUID().toString())
+                .ticketId(ticketId)
+                .orderId(orderId)
+                .userId(userId)
+                .timestamp(LocalDateTime.now())
+                .eventType("TICKET_RESERVATION_FAILED")
+                .reason(reason)
+                .build();
+
+        publishTicketStatusUpdate(message);
+        log.info("Published ticket reservation failed event for ticket: {}, order: {}, reason: {}", ticketId, orderId, reason);
+    }
+
     public void publishTicketReleased(String ticketId, String orderId, String userId) {
         TicketStatusUpdateMessage message = TicketStatusUpdateMessage.builder()
+                .messageId(UUID.randomUUID().toString())
                 .ticketId(ticketId)
                 .orderId(orderId)
                 .status("AVAILABLE")
@@ -52,6 +71,7 @@ public class TicketEventPublisher implements TicketEventPublisherInterface {
 
     public void publishTicketSold(String ticketId, String orderId, String userId) {
         TicketStatusUpdateMessage message = TicketStatusUpdateMessage.builder()
+                .messageId(UUID.randomUUID().toString())
                 .ticketId(ticketId)
                 .orderId(orderId)
                 .status("SOLD")
@@ -65,16 +85,56 @@ public class TicketEventPublisher implements TicketEventPublisherInterface {
         log.info("Published ticket sold event for ticket: {}, order: {}", ticketId, orderId);
     }
 
+    public void publishTicketChanged(TicketResponse ticket) {
+        TicketSnapshotMessage message = TicketSnapshotMessage.builder()
+                .messageId(UUID.randomUUID().toString())
+                .ticketId(ticket.getId())
+                .ticket(ticket)
+                .version(ticket.getVersion())
+                .timestamp(LocalDateTime.now())
+                .eventType("TICKET_CHANGED")
+                .build();
+
+        publishTicketSnapshot(message);
+        log.debug("Published ticket changed event for ticket: {}, version: {}", ticket.getId(), ticket.getVersion());
+    }
+
+    public void publishTicketDeleted(String ticketId, Long version) {
+        TicketSnapshotMessage message = TicketSnapshotMessage.builder()
+                .messageId(UUID.randomUUID().toString())
+                .ticketId(ticketId)
+                .version(version)
+                .timestamp(LocalDateTime.now())
+                .eventType("TICKET_DELETED")
+                .build();
+
+        publishTicketSnapshot(message);
+        log.info("Published ticket deleted event for ticket: {}", ticketId);
+    }
+
     private void publishTicketStatusUpdate(TicketStatusUpdateMessage message) {
         try {
-            rabbitTemplate.convertAndSend(
+            publishPipeline.publish(
                     RabbitMQConfig.TICKET_EXCHANGE,
                     RabbitMQConfig.TICKET_STATUS_UPDATE_ROUTING_KEY,
-                    message
+                    message,
+                    message.getTicketId()
             );
         } catch (Exception e) {
             log.error("Failed to publish ticket status update: {}", e.getMessage(), e);
-            // In a production system, you might want to implement retry logic or dead letter queues
         }
     }
-}
\ No newline at end of file
+
+    private void publishTicketSnapshot(TicketSnapshotMessage message) {
+        try {
+            publishPipeline.publish(
+                    RabbitMQConfig.TICKET_EXCHANGE,
+                    RabbitMQConfig.TICKET_CHANGED_ROUTING_KEY,
+                    message,
+                    message.getTicketId()
+            );
+        } catch (Exception e) {
+            log.error("Failed to publish ticket snapshot: {}", e.getMessage(), e);
+        }
+    }
+}
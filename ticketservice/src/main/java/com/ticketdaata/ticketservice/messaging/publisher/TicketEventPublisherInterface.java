@@ -1,7 +1,12 @@
 package com.ticketdaata.ticketservice.messaging.publisher;
 
+import com.ticketdaata.ticketservice.dto.TicketResponse;
+
 public interface TicketEventPublisherInterface {
     void publishTicketReserved(String ticketId, String orderId, String userId);
+    void publishTicketReservationFailed(String ticketId, String orderId, String userId, String reason);
     void publishTicketReleased(String ticketId, String orderId, String userId);
     void publishTicketSold(String ticketId, String orderId, String userId);
+    void publishTicketChanged(TicketResponse ticket);
+    void publishTicketDeleted(String ticketId, Long version);
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.ticketdaata.ticketservice.repository;
+
+import com.ticketdaata.ticketservice.dto.TicketResponse;
+import com.ticketdaata.ticketservice.entity.Ticket;
+import com.ticketdaata.ticketservice.entity.TicketStatus;
+import org.springframework.data.mongodb.repository.Meta;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Non-blocking counterpart of {@link TicketRepository}'s read methods, for the reactive read API. Results
+ * are the same {@link TicketResponse} projections; writes keep going through {@link TicketRepository}.
+ */
+public interface ReactiveTicketRepository extends ReactiveMongoRepository<Ticket, String> {
+    Mono<TicketResponse> findResponseById(String id);
+
+    @Meta(cursorBatchSize = 500)
+    Flux<TicketResponse> findResponsesByStatus(TicketStatus status);
+
+    Flux<TicketResponse> findResponsesByIdIn(Collection<String> ids);
+
+    @Meta(cursorBatchSize = 500)
+    @Query("{'eventDate': {$gte: ?0, $lte: ?1}}")
+    Flux<TicketResponse> findResponsesByEventDateBetween(LocalDateTime from, LocalDateTime to);
+}
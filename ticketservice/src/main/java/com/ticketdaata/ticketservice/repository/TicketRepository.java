@@ -1,19 +1,30 @@
 package com.ticketdaata.ticketservice.repository;
 
+import com.ticketdaata.ticketservice.dto.TicketResponse;
 import com.ticketdaata.ticketservice.entity.Ticket;
 import com.ticketdaata.ticketservice.entity.TicketStatus;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface TicketRepository extends MongoRepository<Ticket, String> {
-    List<Ticket> findByStatus(TicketStatus status);
+/**
+ * Read methods return {@link TicketResponse} as a DTO projection, so Mongo documents are mapped straight
+ * into the response type without hydrating a {@link Ticket} first.
+ */
+public interface TicketRepository extends MongoRepository<Ticket, String>, TicketRepositoryCustom {
+    Optional<TicketResponse> findResponseById(String id);
 
-    @Query("{'eventName': {$regex: ?0, $options: 'i'}}")
-    List<Ticket> findByEventNameContainingIgnoreCase(String eventName);
+    List<TicketResponse> findResponsesByStatus(TicketStatus status);
+
+    List<TicketResponse> findResponsesByIdIn(Collection<String> ids);
+
+    Stream<TicketResponse> streamAllBy();
 
     @Query("{'eventDate': {$gte: ?0, $lte: ?1}}")
-    List<Ticket> findByEventDateBetween(LocalDateTime from, LocalDateTime to);
-}
\ No newline at end of file
+    List<TicketResponse> findResponsesByEventDateBetween(LocalDateTime from, LocalDateTime to);
+}
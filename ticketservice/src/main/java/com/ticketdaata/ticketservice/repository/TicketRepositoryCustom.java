@@ -0,0 +1,62 @@
+package com.ticketdaata.ticketservice.repository;
+
+import com.ticketdaata.ticketservice.dto.TicketResponse;
+import com.ticketdaata.ticketservice.entity.Ticket;
+import com.ticketdaata.ticketservice.entity.TicketStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface TicketRepositoryCustom {
+
+    /**
+     * Atomically moves a ticket from {@code expectedStatus} to {@code newStatus} and bumps its version.
+     * Matches on id + expected status (+ expected version when given) in a single findAndModify.
+     * Only internal transitions that do not race on versions, release and sold, pass a null version;
+     * reservations must always pass the version the caller read.
+     * <p>
+     * A reservation tags the ticket with {@code holdId}; any other transition given a {@code holdId} only
+     * matches a ticket tagged with it. Returning to AVAILABLE clears the tag.
+     *
+     * @return the updated ticket, or empty if no document matched the expected state
+     */
+    Optional<Ticket> compareAndSetStatus(String id, TicketStatus expectedStatus, Long expectedVersion,
+                                         String holdId, TicketStatus newStatus);
+
+    /**
+     * Keyset page over (status, eventDate, id): returns up to {@code limit} tickets strictly after the
+     * given position, or from the start when {@code afterEventDate} is null.
+     */
+    List<TicketResponse> findPageByStatus(TicketStatus status, LocalDateTime afterEventDate, String afterId, int limit);
+
+    /**
+     * Streams tickets with the given status straight off the Mongo cursor in (eventDate, id) order.
+     * The caller must close the stream.
+     */
+    Stream<TicketResponse> streamByStatus(TicketStatus status);
+
+    /**
+     * Inserts the tickets with a single unordered bulk write, so one bad document does not stop the rest.
+     *
+     * @return error message by list index for every ticket that was not inserted
+     */
+    Map<Integer, String> insertUnordered(List<Ticket> tickets);
+
+    /**
+     * Reserves every AVAILABLE ticket whose version matches in one unordered bulk write, tagging each
+     * with {@code holdId}. Every ticket needs an expected version.
+     *
+     * @return number of tickets actually reserved
+     */
+    long reserveAll(Map<String, Long> expectedVersions, String holdId);
+
+    /**
+     * Returns every ticket still held by {@code holdId} to AVAILABLE.
+     *
+     * @return number of tickets released
+     */
+    long releaseHold(String holdId);
+}
@@ -0,0 +1,129 @@
+package com.ticketdaata.ticketservice.repository;
+
+import com.ticketdaata.ticketservice.dto.TicketResponse;
+import com.ticketdaata.ticketservice.entity.Ticket;
+import com.ticketdaata.ticketservice.entity.TicketStatus;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class TicketRepositoryCustomImpl implements TicketRepositoryCustom {
+
+    private static final Sort KEYSET_ORDER = Sort.by(Sort.Order.asc("eventDate"), Sort.Order.asc("_id"));
+    private static final int STREAM_BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Optional<Ticket> compareAndSetStatus(String id, TicketStatus expectedStatus, Long expectedVersion,
+                                                String holdId, TicketStatus newStatus) {
+        Criteria criteria = Criteria.where("_id").is(id).and("status").is(expectedStatus);
+        if (expectedVersion != null) {
+            criteria = criteria.and("version").is(expectedVersion);
+        }
+        if (holdId != null && newStatus != TicketStatus.RESERVED) {
+            criteria = criteria.and("holdId").is(holdId);
+        }
+
+        Update update = new Update()
+                .set("status", newStatus)
+                .inc("version", 1);
+        if (newStatus == TicketStatus.RESERVED && holdId != null) {
+            update.set("holdId", holdId);
+        } else if (newStatus == TicketStatus.RESERVED || newStatus == TicketStatus.AVAILABLE) {
+            update.unset("holdId");
+        }
+
+        Ticket updated = mongoTemplate.findAndModify(
+                Query.query(criteria),
+                update,
+                FindAndModifyOptions.options().returnNew(true),
+                Ticket.class);
+
+        return Optional.ofNullable(updated);
+    }
+
+    @Override
+    public List<TicketResponse> findPageByStatus(TicketStatus status, LocalDateTime afterEventDate, String afterId, int limit) {
+        Criteria criteria = Criteria.where("status").is(status);
+        if (afterEventDate != null) {
+            criteria = criteria.orOperator(
+                    Criteria.where("eventDate").gt(afterEventDate),
+                    Criteria.where("eventDate").is(afterEventDate).and("_id").gt(afterId));
+        }
+
+        Query query = Query.query(criteria).with(KEYSET_ORDER).limit(limit);
+        return mongoTemplate.query(Ticket.class)
+                .as(TicketResponse.class)
+                .matching(query)
+                .all();
+    }
+
+    @Override
+    public Stream<TicketResponse> streamByStatus(TicketStatus status) {
+        Query query = Query.query(Criteria.where("status").is(status))
+                .with(KEYSET_ORDER)
+                .cursorBatchSize(STREAM_BATCH_SIZE);
+        return mongoTemplate.query(Ticket.class)
+                .as(TicketResponse.class)
+                .matching(query)
+                .stream();
+    }
+
+    @Override
+    public Map<Integer, String> insertUnordered(List<Ticket> tickets) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Ticket.class)
+                    .insert(tickets)
+                    .execute();
+            return Collections.emptyMap();
+        } catch (BulkOperationException e) {
+            Map<Integer, String> failures = new HashMap<>();
+            for (BulkWriteError error : e.getErrors()) {
+                failures.put(error.getIndex(), error.getMessage());
+            }
+            return failures;
+        }
+    }
+
+    @Override
+    public long reserveAll(Map<String, Long> expectedVersions, String holdId) {
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Ticket.class);
+        expectedVersions.forEach((id, version) -> {
+            Criteria criteria = Criteria.where("_id").is(id)
+                    .and("status").is(TicketStatus.AVAILABLE)
+                    .and("version").is(version);
+            operations.updateOne(Query.query(criteria), new Update()
+                    .set("status", TicketStatus.RESERVED)
+                    .set("holdId", holdId)
+                    .inc("version", 1));
+        });
+        return operations.execute().getModifiedCount();
+    }
+
+    @Override
+    public long releaseHold(String holdId) {
+        Query query = Query.query(Criteria.where("holdId").is(holdId).and("status").is(TicketStatus.RESERVED));
+        Update update = new Update()
+                .set("status", TicketStatus.AVAILABLE)
+                .unset("holdId")
+                .inc("version", 1);
+        return mongoTemplate.updateMulti(query, update, Ticket.class).getModifiedCount();
+    }
+}
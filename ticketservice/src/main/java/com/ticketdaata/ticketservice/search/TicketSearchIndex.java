@@ -0,0 +1,299 @@
+package com.ticketdaata.ticketservice.search;
+
+import com.ticketdaata.ticketservice.dto.TicketResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-process inverted index over ticket eventName, category and location.
+ * Keeps exact-token postings for precise hits and trigram postings for substring / typo-tolerant
+ * matches. Only ticket ids are stored; callers hydrate the hits from Mongo.
+ * <p>
+ * Kept current by this replica's writes and by the ticket change events of every replica, which may
+ * arrive late or twice: a ticket is only replaced by a higher version, and recently deleted tickets
+ * are remembered so a late change event cannot bring them back.
+ */
+@Slf4j
+@Component
+public class TicketSearchIndex {
+
+    // Relevance weights for eventName, category and location, in that order
+    private static final double[] FIELD_WEIGHTS = {3.0, 2.0, 1.0};
+
+    private static final double EXACT_MATCH = 1.0;
+    private static final double PREFIX_MATCH = 0.75;
+    private static final double SUBSTRING_MATCH = 0.6;
+    private static final double FUZZY_MATCH = 0.4;
+    private static final double MIN_TRIGRAM_OVERLAP = 0.5;
+    private static final int MAX_TOMBSTONES = 10_000;
+
+    private final Map<String, Set<String>> tokenPostings = new HashMap<>();
+    private final Map<String, Set<String>> trigramPostings = new HashMap<>();
+    private final Map<String, IndexedTicket> documents = new HashMap<>();
+    private final Map<String, Long> tombstones = new LinkedHashMap<>(16, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > MAX_TOMBSTONES;
+        }
+    };
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Adds a ticket to the index, or replaces an older version of it.
+     */
+    public void index(TicketResponse ticket) {
+        IndexedTicket indexed = new IndexedTicket(
+                versionOf(ticket.getVersion()),
+                tokenize(ticket.getEventName()),
+                tokenize(ticket.getCategory()),
+                tokenize(ticket.getLocation()));
+
+        lock.writeLock().lock();
+        try {
+            IndexedTicket current = documents.get(ticket.getId());
+            Long deletedAt = tombstones.get(ticket.getId());
+            if ((current != null && current.version > indexed.version)
+                    || (deletedAt != null && deletedAt >= indexed.version)) {
+                return;
+            }
+            if (current != null && current.fields.equals(indexed.fields)) {
+                // Status changes do not touch the indexed fields
+                documents.put(ticket.getId(), indexed);
+                return;
+            }
+            unindex(ticket.getId());
+            documents.put(ticket.getId(), indexed);
+            for (String token : indexed.allTokens()) {
+                tokenPostings.computeIfAbsent(token, k -> new HashSet<>()).add(ticket.getId());
+                for (String trigram : trigrams(token)) {
+                    trigramPostings.computeIfAbsent(trigram, k -> new HashSet<>()).add(ticket.getId());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a ticket deleted at the given version, unless the index already holds a newer one.
+     */
+    public void remove(String ticketId, Long version) {
+        long deletedAt = versionOf(version);
+        lock.writeLock().lock();
+        try {
+            IndexedTicket current = documents.get(ticketId);
+            if (current != null && current.version > deletedAt) {
+                return;
+            }
+            unindex(ticketId);
+            tombstones.merge(ticketId, deletedAt, Math::max);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops the current contents and indexes every ticket from the given stream.
+     */
+    public void rebuild(Stream<TicketResponse> tickets) {
+        lock.writeLock().lock();
+        try {
+            tokenPostings.clear();
+            trigramPostings.clear();
+            documents.clear();
+            tombstones.clear();
+            tickets.forEach(this::index);
+            log.info("Ticket search index rebuilt with {} tickets, {} tokens, {} trigrams",
+                    documents.size(), tokenPostings.size(), trigramPostings.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns ticket ids ranked by relevance (best first) for the requested page.
+     */
+    public Hits search(String query, int offset, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return new Hits(Collections.emptyList(), 0);
+        }
+
+        Map<String, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (String term : terms) {
+                scoreTerm(term, scores);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Map.Entry<String, Double>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<String, Double>comparingByValue(Comparator.reverseOrder())
+                .thenComparing(Map.Entry.comparingByKey()));
+
+        int from = Math.min(offset, ranked.size());
+        int to = Math.min(from + limit, ranked.size());
+        List<String> ids = new ArrayList<>(to - from);
+        for (Map.Entry<String, Double> entry : ranked.subList(from, to)) {
+            ids.add(entry.getKey());
+        }
+        return new Hits(ids, ranked.size());
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void scoreTerm(String term, Map<String, Double> scores) {
+        List<String> termTrigrams = trigrams(term);
+        Map<String, Integer> trigramHits = new HashMap<>();
+        for (String trigram : termTrigrams) {
+            for (String id : trigramPostings.getOrDefault(trigram, Collections.emptySet())) {
+                trigramHits.merge(id, 1, Integer::sum);
+            }
+        }
+
+        int minHits = Math.max(1, (int) Math.ceil(termTrigrams.size() * MIN_TRIGRAM_OVERLAP));
+        Set<String> candidates = new HashSet<>(tokenPostings.getOrDefault(term, Collections.emptySet()));
+        trigramHits.forEach((id, hits) -> {
+            if (hits >= minHits) {
+                candidates.add(id);
+            }
+        });
+
+        for (String id : candidates) {
+            IndexedTicket ticket = documents.get(id);
+            double score = ticket.score(term);
+            if (score == 0) {
+                double overlap = (double) trigramHits.getOrDefault(id, 0) / termTrigrams.size();
+                score = FUZZY_MATCH * overlap;
+            }
+            if (score > 0) {
+                scores.merge(id, score, Double::sum);
+            }
+        }
+    }
+
+    private void unindex(String ticketId) {
+        IndexedTicket previous = documents.remove(ticketId);
+        if (previous == null) {
+            return;
+        }
+        for (String token : previous.allTokens()) {
+            removePosting(tokenPostings, token, ticketId);
+            for (String trigram : trigrams(token)) {
+                removePosting(trigramPostings, trigram, ticketId);
+            }
+        }
+    }
+
+    private static long versionOf(Long version) {
+        return version != null ? version : -1;
+    }
+
+    private static void removePosting(Map<String, Set<String>> postings, String key, String ticketId) {
+        Set<String> ids = postings.get(key);
+        if (ids != null && ids.remove(ticketId) && ids.isEmpty()) {
+            postings.remove(key);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Boundary-padded trigrams, so short tokens and word edges still produce grams.
+     */
+    static List<String> trigrams(String token) {
+        String padded = "$" + token + "$";
+        List<String> grams = new ArrayList<>(padded.length() - 2);
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Hits {
+        private final List<String> ids;
+        private final int total;
+    }
+
+    private static class IndexedTicket {
+        private final long version;
+        private final List<List<String>> fields;
+
+        IndexedTicket(long version, List<String> eventName, List<String> category, List<String> location) {
+            this.version = version;
+            this.fields = List.of(eventName, category, location);
+        }
+
+        Set<String> allTokens() {
+            Set<String> tokens = new HashSet<>();
+            fields.forEach(tokens::addAll);
+            return tokens;
+        }
+
+        /**
+         * Best weighted match of the term across fields; 0 when no token contains it.
+         */
+        double score(String term) {
+            double best = 0;
+            for (int field = 0; field < FIELD_WEIGHTS.length; field++) {
+                for (String token : fields.get(field)) {
+                    double match;
+                    if (token.equals(term)) {
+                        match = EXACT_MATCH;
+                    } else if (token.startsWith(term)) {
+                        match = PREFIX_MATCH;
+                    } else if (token.contains(term)) {
+                        match = SUBSTRING_MATCH;
+                    } else {
+                        continue;
+                    }
+                    best = Math.max(best, match * FIELD_WEIGHTS[field]);
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.ticketdaata.ticketservice.service;
+
+import com.ticketdaata.ticketservice.cache.TicketCache;
+import com.ticketdaata.ticketservice.dto.TicketResponse;
+import com.ticketdaata.ticketservice.dto.TicketSearchResult;
+import com.ticketdaata.ticketservice.entity.TicketStatus;
+import com.ticketdaata.ticketservice.repository.ReactiveTicketRepository;
+import com.ticketdaata.ticketservice.search.TicketSearchIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Non-blocking variant of {@link TicketService}'s browse reads. No thread waits on Mongo: results are
+ * emitted as the driver receives them, and at most {@code tickets.reactive.prefetch} tickets are
+ * requested ahead of what the client has consumed, so a slow reader slows the cursor instead of
+ * filling the heap. Writes, and the reads other services depend on, stay on {@link TicketService}.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReactiveTicketService {
+
+    private final ReactiveTicketRepository reactiveTicketRepository;
+    private final TicketSearchIndex ticketSearchIndex;
+    private final TicketCache ticketCache;
+
+    @Value("${tickets.pagination.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${tickets.pagination.max-page-size:500}")
+    private int maxPageSize;
+
+    @Value("${tickets.reactive.prefetch:256}")
+    private int prefetch;
+
+    public Flux<TicketResponse> listByStatus(TicketStatus status) {
+        return reactiveTicketRepository.findResponsesByStatus(status)
+                .limitRate(prefetch);
+    }
+
+    public Mono<TicketResponse> get(String id) {
+        TicketResponse cached = ticketCache.get(id);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return reactiveTicketRepository.findResponseById(id)
+                .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("Ticket not found with ID: " + id)))
+                .doOnNext(ticketCache::put);
+    }
+
+    /**
+     * Same ranking as {@link TicketService#searchByEvent}; only the page's tickets are loaded, in one query.
+     */
+    public Mono<TicketSearchResult> searchByEvent(String query, int page, Integer size) {
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        TicketSearchIndex.Hits hits = ticketSearchIndex.search(query, Math.max(0, page) * pageSize, pageSize);
+        if (hits.getIds().isEmpty()) {
+            return Mono.just(new TicketSearchResult(Collections.emptyList(), hits.getTotal()));
+        }
+
+        return reactiveTicketRepository.findResponsesByIdIn(hits.getIds())
+                .collectMap(TicketResponse::getId)
+                .map(byId -> new TicketSearchResult(ranked(hits.getIds(), byId), hits.getTotal()));
+    }
+
+    public Flux<TicketResponse> happeningBetween(LocalDateTime from, LocalDateTime to) {
+        return reactiveTicketRepository.findResponsesByEventDateBetween(from, to)
+                .limitRate(prefetch);
+    }
+
+    private static List<TicketResponse> ranked(List<String> ids, Map<String, TicketResponse> byId) {
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
@@ -0,0 +1,58 @@
+package com.ticketdaata.ticketservice.service;
+
+import com.ticketdaata.ticketservice.dto.TicketResponse;
+import com.ticketdaata.ticketservice.entity.TicketStatus;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position over (status, eventDate, id), handed to clients as an opaque URL-safe token.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+class TicketCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final TicketStatus status;
+    private final LocalDateTime eventDate;
+    private final String id;
+
+    static TicketCursor after(TicketResponse ticket) {
+        return new TicketCursor(ticket.getStatus(), ticket.getEventDate(), ticket.getId());
+    }
+
+    String encode() {
+        String raw = status.name() + SEPARATOR + eventDate + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalStateException for a malformed cursor or one issued for another status, so the
+     *                               client gets a 400 rather than a 404
+     */
+    static TicketCursor decode(String token, TicketStatus expectedStatus) {
+        TicketCursor cursor;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, 3);
+            if (parts.length != 3) {
+                throw new IllegalStateException("Invalid cursor");
+            }
+            cursor = new TicketCursor(TicketStatus.valueOf(parts[0]), LocalDateTime.parse(parts[1]), parts[2]);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // Not Base64, or an unknown status or date
+            throw new IllegalStateException("Invalid cursor", e);
+        }
+        if (cursor.status != expectedStatus) {
+            throw new IllegalStateException("Cursor does not belong to status " + expectedStatus);
+        }
+        return cursor;
+    }
+}
@@ -1,20 +1,42 @@
 package com.ticketdaata.ticketservice.service;
 
+import com.ticketdaata.ticketservice.cache.TicketCache;
+import com.ticketdaata.ticketservice.dto.BulkCreateTicketsResponse;
 import com.ticketdaata.ticketservice.dto.CreateTicketRequest;
+import com.ticketdaata.ticketservice.dto.TicketPage;
 import com.ticketdaata.ticketservice.dto.TicketResponse;
+import com.ticketdaata.ticketservice.dto.TicketSearchResult;
 import com.ticketdaata.ticketservice.dto.UpdateTicketRequest;
 import com.ticketdaata.ticketservice.entity.Ticket;
 import com.ticketdaata.ticketservice.entity.TicketStatus;
+import com.ticketdaata.ticketservice.exception.TicketVersionConflictException;
 import com.ticketdaata.ticketservice.messaging.publisher.TicketEventPublisherInterface;
 import com.ticketdaata.ticketservice.repository.TicketRepository;
+import com.ticketdaata.ticketservice.search.TicketSearchIndex;
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -23,48 +45,141 @@ public class TicketService {
 
     private final TicketRepository ticketRepository;
     private final TicketEventPublisherInterface ticketEventPublisher;
+    private final TicketSearchIndex ticketSearchIndex;
+    private final TicketCache ticketCache;
+    private final Validator validator;
+
+    @Value("${tickets.pagination.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${tickets.pagination.max-page-size:500}")
+    private int maxPageSize;
+
+    @Value("${tickets.bulk.chunk-size:1000}")
+    private int bulkChunkSize;
 
     @Transactional
     public TicketResponse create(CreateTicketRequest request) {
         log.info("Creating ticket for event: {}", request.getEventName());
 
-        Ticket ticket = Ticket.builder()
-                .eventName(request.getEventName())
-                .category(request.getCategory())
-                .location(request.getLocation())
-                .eventDate(request.getEventDate())
-                .seatInfo(request.getSeatInfo())
-                .price(request.getPrice())
-                .status(TicketStatus.AVAILABLE)
-                .userId(request.getUserId())
-                .sellerId(request.getSellerId())
-                .build();
-
-        Ticket savedTicket = ticketRepository.save(ticket);
+        Ticket savedTicket = ticketRepository.save(newTicket(request));
         log.info("Ticket created successfully with ID: {}", savedTicket.getId());
 
-        return convertToResponse(savedTicket);
+        TicketResponse response = convertToResponse(savedTicket);
+        ticketSearchIndex.index(response);
+        ticketEventPublisher.publishTicketChanged(response);
+        return response;
+    }
+
+    /**
+     * Creates tickets in chunks of {@code tickets.bulk.chunk-size}: each chunk is validated in parallel
+     * and written with one unordered bulk insert. Items are consumed lazily, so a streamed upload is
+     * never fully held in memory. If the upload turns out to be malformed part way, everything before
+     * the bad item is still created and the bad item is reported as the last, failed result.
+     */
+    public BulkCreateTicketsResponse createBulk(Iterator<CreateTicketRequest> requests) {
+        List<BulkCreateTicketsResponse.ItemResult> results = new ArrayList<>();
+        List<CreateTicketRequest> chunk = new ArrayList<>(bulkChunkSize);
+        String malformed = null;
+
+        while (true) {
+            CreateTicketRequest request;
+            try {
+                if (!requests.hasNext()) {
+                    break;
+                }
+                request = requests.next();
+            } catch (RuntimeException e) {
+                // Only a streamed upload parses while iterating; nothing after the bad item can be read
+                malformed = "Malformed ticket, upload stopped here: " + e.getMessage();
+                break;
+            }
+            chunk.add(request);
+            if (chunk.size() == bulkChunkSize) {
+                createChunk(chunk, results);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            createChunk(chunk, results);
+        }
+        if (malformed != null) {
+            results.add(new BulkCreateTicketsResponse.ItemResult(results.size(), null, malformed));
+        }
+
+        int created = (int) results.stream().filter(result -> result.getError() == null).count();
+        log.info("Bulk ticket creation finished: {} created, {} failed", created, results.size() - created);
+
+        return BulkCreateTicketsResponse.builder()
+                .created(created)
+                .failed(results.size() - created)
+                .results(results)
+                .build();
     }
 
     public List<TicketResponse> listAvailable() {
-        return ticketRepository.findByStatus(TicketStatus.AVAILABLE)
-                .stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return ticketRepository.findResponsesByStatus(TicketStatus.AVAILABLE);
     }
 
     public List<TicketResponse> listByStatus(TicketStatus status) {
         log.info("Fetching tickets with status: {}", status);
-        return ticketRepository.findByStatus(status)
-                .stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return ticketRepository.findResponsesByStatus(status);
+    }
+
+    /**
+     * Keyset page of tickets with the given status, ordered by event date then id.
+     */
+    public TicketPage pageByStatus(TicketStatus status, String cursor, Integer limit) {
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        TicketCursor after = (cursor == null || cursor.isBlank()) ? null : TicketCursor.decode(cursor, status);
+
+        // Fetch one extra row to know whether another page exists
+        List<TicketResponse> tickets = ticketRepository.findPageByStatus(
+                status,
+                after != null ? after.getEventDate() : null,
+                after != null ? after.getId() : null,
+                pageSize + 1);
+
+        boolean hasMore = tickets.size() > pageSize;
+        List<TicketResponse> pageTickets = hasMore ? tickets.subList(0, pageSize) : tickets;
+
+        return TicketPage.builder()
+                .items(pageTickets)
+                .nextCursor(hasMore ? TicketCursor.after(pageTickets.get(pageSize - 1)).encode() : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Hands each ticket with the given status to {@code sink} as it comes off the Mongo cursor,
+     * without materializing the result set.
+     */
+    public void streamByStatus(TicketStatus status, Consumer<TicketResponse> sink) {
+        try (Stream<TicketResponse> tickets = ticketRepository.streamByStatus(status)) {
+            tickets.forEach(sink);
+        }
+    }
+
+    /**
+     * Hands every ticket, whatever its status, to {@code sink} as it comes off the Mongo cursor. Used to
+     * seed the ticket replicas of other services; they catch up from ticket change events afterwards.
+     */
+    public void streamAll(Consumer<TicketResponse> sink) {
+        try (Stream<TicketResponse> tickets = ticketRepository.streamAllBy()) {
+            tickets.forEach(sink);
+        }
     }
 
     public TicketResponse get(String id) {
-        Ticket ticket = ticketRepository.findById(id)
+        TicketResponse cached = ticketCache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        TicketResponse ticket = ticketRepository.findResponseById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Ticket not found with ID: " + id));
-        return convertToResponse(ticket);
+        ticketCache.put(ticket);
+        return ticket;
     }
 
     @Transactional
@@ -87,7 +202,11 @@ public class TicketService {
         Ticket savedTicket = ticketRepository.save(ticket);
         log.info("Ticket updated successfully: {}", id);
 
-        return convertToResponse(savedTicket);
+        TicketResponse response = convertToResponse(savedTicket);
+        ticketCache.put(response);
+        ticketSearchIndex.index(response);
+        ticketEventPublisher.publishTicketChanged(response);
+        return response;
     }
 
     @Transactional
@@ -102,79 +221,316 @@ public class TicketService {
         }
 
         ticketRepository.delete(ticket);
+        ticketCache.invalidate(id, ticket.getVersion() != null ? ticket.getVersion() : Long.MAX_VALUE);
+        ticketSearchIndex.remove(id, ticket.getVersion());
+        ticketEventPublisher.publishTicketDeleted(id, ticket.getVersion());
         log.info("Ticket deleted successfully: {}", id);
     }
 
     @Transactional
     public TicketResponse reserve(String id, Long version) {
+        return reserve(id, version, null);
+    }
+
+    /**
+     * @param holdId order the ticket is reserved for; its release and sale must name the same order
+     */
+    @Transactional
+    public TicketResponse reserve(String id, Long version, String holdId) {
         log.info("Reserving ticket: {} with version: {}", id, version);
+        if (version == null) {
+            throw new TicketVersionConflictException("Ticket version is required to reserve a ticket");
+        }
 
-        Ticket ticket = ticketRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Ticket not found with ID: " + id));
+        TicketResponse response = transition(id, TicketStatus.AVAILABLE, version, holdId, TicketStatus.RESERVED,
+                "Ticket is not available for reservation");
 
-        if (ticket.getStatus() != TicketStatus.AVAILABLE) {
-            throw new IllegalStateException("Ticket is not available for reservation");
-        }
+        log.info("Ticket reserved successfully: {}", id);
+        return response;
+    }
 
-        if (!ticket.getVersion().equals(version)) {
-            throw new IllegalStateException("Ticket version mismatch. Ticket may have been updated by another user.");
+    @Transactional
+    public List<TicketResponse> reserveAll(Map<String, Long> versionsById) {
+        return reserveAll(versionsById, null);
+    }
+
+    /**
+     * All-or-nothing reservation of a seat block. The whole block is applied as one bulk conditional
+     * update; if any seat could not be taken, the seats this call did take are released again.
+     *
+     * @param versionsById ticket id to expected version
+     * @param holdId order the seats are reserved for, or null for an anonymous hold
+     */
+    @Transactional
+    public List<TicketResponse> reserveAll(Map<String, Long> versionsById, String holdId) {
+        if (versionsById == null || versionsById.isEmpty()) {
+            throw new IllegalStateException("No tickets to reserve");
+        }
+        if (versionsById.containsValue(null)) {
+            throw new TicketVersionConflictException("Ticket versions are required to reserve a seat block");
+        }
+        log.info("Reserving seat block of {} tickets: {}", versionsById.size(), versionsById.keySet());
+
+        String blockHoldId = holdId != null ? holdId : UUID.randomUUID().toString();
+        long reserved = ticketRepository.reserveAll(versionsById, blockHoldId);
+
+        if (reserved == versionsById.size() || (reserved == 0 && holdId != null && heldBy(versionsById.keySet(), holdId))) {
+            // Either this call took every seat, or a redelivered request finds them all held by its order already
+            List<TicketResponse> tickets = ticketRepository.findResponsesByIdIn(versionsById.keySet());
+            tickets.forEach(ticket -> {
+                ticketCache.put(ticket);
+                ticketEventPublisher.publishTicketChanged(ticket);
+            });
+            log.info("Seat block reserved successfully: {}", versionsById.keySet());
+            return tickets;
         }
 
-        ticket.setStatus(TicketStatus.RESERVED);
-        Ticket savedTicket = ticketRepository.save(ticket);
+        // Work out why before undoing, while the seats this block took are still tagged with its hold
+        RuntimeException failure = seatBlockFailure(versionsById, blockHoldId);
+        long released = ticketRepository.releaseHold(blockHoldId);
+        // Refresh the cached seats, which a stale version may have come from
+        List<TicketResponse> current = ticketRepository.findResponsesByIdIn(versionsById.keySet());
+        current.forEach(ticketCache::put);
+        if (released > 0) {
+            // Taking and giving back the seats bumped their versions
+            current.forEach(ticketEventPublisher::publishTicketChanged);
+        }
 
-        log.info("Ticket reserved successfully: {}", id);
-        return convertToResponse(savedTicket);
+        log.warn("Seat block reservation failed, released {} of {} tickets: {}",
+                released, versionsById.size(), failure.getMessage());
+        throw failure;
     }
 
     @Transactional
     public TicketResponse release(String id) {
-        log.info("Releasing ticket: {}", id);
-
-        Ticket ticket = ticketRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Ticket not found with ID: " + id));
+        return release(id, null);
+    }
 
-        if (ticket.getStatus() != TicketStatus.RESERVED) {
-            throw new IllegalStateException("Ticket is not reserved");
-        }
+    /**
+     * @param holdId only release the ticket if this order holds it; null releases whoever holds it
+     */
+    @Transactional
+    public TicketResponse release(String id, String holdId) {
+        log.info("Releasing ticket: {}", id);
 
-        ticket.setStatus(TicketStatus.AVAILABLE);
-        Ticket savedTicket = ticketRepository.save(ticket);
+        TicketResponse response = transition(id, TicketStatus.RESERVED, null, holdId, TicketStatus.AVAILABLE,
+                "Ticket is not reserved");
 
         log.info("Ticket released successfully: {}", id);
-        return convertToResponse(savedTicket);
+        return response;
     }
 
     @Transactional
     public TicketResponse markSold(String id) {
+        return markSold(id, null);
+    }
+
+    /**
+     * @param holdId only sell the ticket if this order holds it; null sells it to whoever holds it
+     */
+    @Transactional
+    public TicketResponse markSold(String id, String holdId) {
         log.info("Marking ticket as sold: {}", id);
 
-        Ticket ticket = ticketRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Ticket not found with ID: " + id));
+        TicketResponse response = transition(id, TicketStatus.RESERVED, null, holdId, TicketStatus.SOLD,
+                "Ticket must be reserved before marking as sold");
 
-        if (ticket.getStatus() != TicketStatus.RESERVED) {
-            throw new IllegalStateException("Ticket must be reserved before marking as sold");
+        log.info("Ticket marked as sold successfully: {}", id);
+        return response;
+    }
+
+    /**
+     * Relevance-ranked search over event name, category and location. The in-memory index yields
+     * the ranked ids for the page and Mongo is only used to hydrate them.
+     */
+    public TicketSearchResult searchByEvent(String query, int page, Integer size) {
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        TicketSearchIndex.Hits hits = ticketSearchIndex.search(query, Math.max(0, page) * pageSize, pageSize);
+        if (hits.getIds().isEmpty()) {
+            return new TicketSearchResult(Collections.emptyList(), hits.getTotal());
         }
 
-        ticket.setStatus(TicketStatus.SOLD);
-        Ticket savedTicket = ticketRepository.save(ticket);
+        Map<String, TicketResponse> byId = new HashMap<>();
+        for (TicketResponse ticket : ticketRepository.findResponsesByIdIn(hits.getIds())) {
+            byId.put(ticket.getId(), ticket);
+        }
 
-        log.info("Ticket marked as sold successfully: {}", id);
-        return convertToResponse(savedTicket);
+        List<TicketResponse> ranked = new ArrayList<>(hits.getIds().size());
+        for (String id : hits.getIds()) {
+            TicketResponse ticket = byId.get(id);
+            if (ticket != null) {
+                ranked.add(ticket);
+            }
+        }
+        return new TicketSearchResult(ranked, hits.getTotal());
     }
 
-    public List<TicketResponse> searchByEvent(String query) {
-        return ticketRepository.findByEventNameContainingIgnoreCase(query)
-                .stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+    @PostConstruct
+    public void rebuildSearchIndex() {
+        try (Stream<TicketResponse> tickets = ticketRepository.streamAllBy()) {
+            ticketSearchIndex.rebuild(tickets);
+        } catch (Exception e) {
+            log.error("Failed to rebuild ticket search index: {}", e.getMessage(), e);
+        }
     }
 
     public List<TicketResponse> happeningBetween(LocalDateTime from, LocalDateTime to) {
-        return ticketRepository.findByEventDateBetween(from, to)
-                .stream()
-                .map(this::convertToResponse)
+        return ticketRepository.findResponsesByEventDateBetween(from, to);
+    }
+
+    /**
+     * Applies a status transition in one conditional findAndModify. Only when nothing matched do we
+     * read the ticket back to tell "not found", "wrong state" and "version conflict" apart.
+     * A transition this hold already made (a redelivered reservation or sale) succeeds again without changes.
+     * The cached copy is refreshed with the new version, or with the current state when the transition fails.
+     */
+    private TicketResponse transition(String id, TicketStatus expectedStatus, Long expectedVersion, String holdId,
+                              TicketStatus newStatus, String wrongStateMessage) {
+        Ticket updated = ticketRepository.compareAndSetStatus(id, expectedStatus, expectedVersion, holdId, newStatus)
+                .orElse(null);
+        if (updated == null) {
+            Ticket current = ticketRepository.findById(id).orElse(null);
+            if (current == null) {
+                ticketCache.invalidate(id, Long.MAX_VALUE);
+                throw new IllegalArgumentException("Ticket not found with ID: " + id);
+            }
+            // Whatever is cached lost the race; the copy just read is current
+            TicketResponse response = convertToResponse(current);
+            ticketCache.put(response);
+            if (alreadyApplied(current, holdId, newStatus)) {
+                log.info("Ticket {} is already {} for hold {}", id, current.getStatus(), holdId);
+                return response;
+            }
+            if (current.getStatus() != expectedStatus) {
+                throw new IllegalStateException(wrongStateMessage);
+            }
+            if (holdId != null && newStatus != TicketStatus.RESERVED && !holdId.equals(current.getHoldId())) {
+                throw new IllegalStateException("Ticket is held by another order");
+            }
+            throw new TicketVersionConflictException(
+                    "Ticket version mismatch. Ticket may have been updated by another user.");
+        }
+        TicketResponse response = convertToResponse(updated);
+        ticketCache.put(response);
+        ticketEventPublisher.publishTicketChanged(response);
+        return response;
+    }
+
+    // Released tickets drop their hold, so only reservations and sales can be recognised as repeats
+    private static boolean alreadyApplied(Ticket ticket, String holdId, TicketStatus newStatus) {
+        if (holdId == null || !holdId.equals(ticket.getHoldId())) {
+            return false;
+        }
+        return ticket.getStatus() == newStatus
+                || (newStatus == TicketStatus.RESERVED && ticket.getStatus() == TicketStatus.SOLD);
+    }
+
+    private boolean heldBy(Collection<String> ids, String holdId) {
+        int held = 0;
+        for (Ticket ticket : ticketRepository.findAllById(ids)) {
+            if (alreadyApplied(ticket, holdId, TicketStatus.RESERVED)) {
+                held++;
+            }
+        }
+        return held == ids.size();
+    }
+
+    private RuntimeException seatBlockFailure(Map<String, Long> versionsById, String holdId) {
+        Map<String, Ticket> current = new HashMap<>();
+        ticketRepository.findAllById(versionsById.keySet()).forEach(ticket -> current.put(ticket.getId(), ticket));
+
+        List<String> missing = new ArrayList<>();
+        List<String> unavailable = new ArrayList<>();
+        List<String> conflicted = new ArrayList<>();
+        for (String id : versionsById.keySet()) {
+            Ticket ticket = current.get(id);
+            if (ticket == null) {
+                missing.add(id);
+            } else if (holdId.equals(ticket.getHoldId())) {
+                continue; // Taken by this block, released by the caller
+            } else if (ticket.getStatus() != TicketStatus.AVAILABLE) {
+                unavailable.add(id);
+            } else {
+                conflicted.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            return new IllegalArgumentException("Tickets not found with IDs: " + missing);
+        }
+        if (!unavailable.isEmpty()) {
+            return new IllegalStateException("Tickets are not available for reservation: " + unavailable);
+        }
+        return new TicketVersionConflictException(
+                "Ticket version mismatch for " + conflicted + ". Tickets may have been updated by another user.");
+    }
+
+    private void createChunk(List<CreateTicketRequest> chunk, List<BulkCreateTicketsResponse.ItemResult> results) {
+        int baseIndex = results.size();
+        List<String> violations = IntStream.range(0, chunk.size())
+                .parallel()
+                .mapToObj(i -> validate(chunk.get(i)))
                 .collect(Collectors.toList());
+
+        List<Ticket> tickets = new ArrayList<>(chunk.size());
+        List<BulkCreateTicketsResponse.ItemResult> pending = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            BulkCreateTicketsResponse.ItemResult result =
+                    new BulkCreateTicketsResponse.ItemResult(baseIndex + i, null, violations.get(i));
+            results.add(result);
+            if (result.getError() == null) {
+                // Ids are assigned up front so per-item results don't need a read back
+                Ticket ticket = newTicket(chunk.get(i));
+                ticket.setId(new ObjectId().toHexString());
+                ticket.setVersion(0L);
+                tickets.add(ticket);
+                pending.add(result);
+            }
+        }
+        if (tickets.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, String> failures = ticketRepository.insertUnordered(tickets);
+        for (int i = 0; i < tickets.size(); i++) {
+            String failure = failures.get(i);
+            if (failure != null) {
+                pending.get(i).setError(failure);
+            } else {
+                pending.get(i).setId(tickets.get(i).getId());
+                TicketResponse response = convertToResponse(tickets.get(i));
+                ticketSearchIndex.index(response);
+                ticketEventPublisher.publishTicketChanged(response);
+            }
+        }
+    }
+
+    private String validate(CreateTicketRequest request) {
+        if (request == null) {
+            return "Ticket is empty";
+        }
+        Set<ConstraintViolation<CreateTicketRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private Ticket newTicket(CreateTicketRequest request) {
+        return Ticket.builder()
+                .eventName(request.getEventName())
+                .category(request.getCategory())
+                .location(request.getLocation())
+                .eventDate(request.getEventDate())
+                .seatInfo(request.getSeatInfo())
+                .price(request.getPrice())
+                .status(TicketStatus.AVAILABLE)
+                .userId(request.getUserId())
+                .sellerId(request.getSellerId())
+                .build();
     }
 
     private TicketResponse convertToResponse(Ticket ticket) {
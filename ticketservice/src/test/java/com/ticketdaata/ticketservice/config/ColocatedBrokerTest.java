@@ -0,0 +1,121 @@
+package com.ticketdaata.ticketservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.Queue;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two brokers in one JVM with {@code messaging.inmemory.colocated=true}, standing in for the Ticket and
+ * Orders services: the first one started owns the queues and the second routes through it.
+ */
+class ColocatedBrokerTest {
+
+    private static final String RESERVATION_QUEUE = "ticket.reservation.queue";
+    private static final String STATUS_QUEUE = "order.ticket-status.queue";
+
+    private InMemoryMessageBroker first;
+    private InMemoryMessageBroker second;
+
+    @BeforeEach
+    void setUp() {
+        first = broker(new Binding(RESERVATION_QUEUE, Binding.DestinationType.QUEUE, "ticket.exchange", "ticket.reserve", null),
+                new Queue(RESERVATION_QUEUE));
+        second = broker(new Binding(STATUS_QUEUE, Binding.DestinationType.QUEUE, "order.exchange", "ticket.status.#", null),
+                new Queue(STATUS_QUEUE, true, false, false, Map.of("x-delivery-limit", 2)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        second.shutdown();
+        first.shutdown();
+    }
+
+    @Test
+    void messageSentByTheSecondServiceReachesTheFirstServicesListener() throws Exception {
+        CompletableFuture<TicketSideMessage> received = new CompletableFuture<>();
+        first.registerListener(RESERVATION_QUEUE, TicketSideMessage.class, received::complete);
+
+        second.sendMessage("ticket.exchange", "ticket.reserve", new OrderSideMessage("ticket-1", 3L));
+
+        // Each service has its own copy of the DTO class, so the crossing converts it once
+        assertThat(received.get(5, TimeUnit.SECONDS)).isEqualTo(new TicketSideMessage("ticket-1", 3L));
+    }
+
+    @Test
+    void listenerOfTheSecondServiceGetsTheSentObject() throws Exception {
+        CompletableFuture<OrderSideMessage> received = new CompletableFuture<>();
+        second.registerListener(STATUS_QUEUE, OrderSideMessage.class, received::complete);
+
+        OrderSideMessage sent = new OrderSideMessage("ticket-1", 4L);
+        first.sendMessage("order.exchange", "ticket.status.reserved", sent);
+
+        assertThat(received.get(5, TimeUnit.SECONDS)).isSameAs(sent);
+    }
+
+    @Test
+    void secondServicesDeliveryLimitAppliesOnTheSharedQueue() throws Exception {
+        second.registerListener(STATUS_QUEUE, message -> {
+            throw new IllegalStateException("handler down");
+        });
+
+        first.sendMessage("order.exchange", "ticket.status.sold", new OrderSideMessage("ticket-1", 5L));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (first.deadLetters(STATUS_QUEUE).isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(first.deadLetters(STATUS_QUEUE)).singleElement()
+                .satisfies(deadLetter -> assertThat(deadLetter.getAttempts()).isEqualTo(2));
+        assertThat(second.deadLetters(STATUS_QUEUE)).isEmpty();
+    }
+
+    private static InMemoryMessageBroker broker(Binding binding, Queue queue) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("binding", binding);
+        beans.addBean("queue", queue);
+        InMemoryMessageBroker broker = new InMemoryMessageBroker(beans.getBeanProvider(Binding.class),
+                beans.getBeanProvider(Queue.class), beans.getBeanProvider(Declarables.class), new ObjectMapper());
+        ReflectionTestUtils.setField(broker, "queueCapacity", 16);
+        ReflectionTestUtils.setField(broker, "batchSize", 4);
+        ReflectionTestUtils.setField(broker, "sendTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(broker, "defaultMaxAttempts", 5);
+        ReflectionTestUtils.setField(broker, "initialBackoffMs", 1L);
+        ReflectionTestUtils.setField(broker, "backoffMultiplier", 1.0);
+        ReflectionTestUtils.setField(broker, "maxBackoffMs", 1L);
+        ReflectionTestUtils.setField(broker, "deadLetterCapacity", 10);
+        ReflectionTestUtils.setField(broker, "colocated", true);
+        broker.compileRoutes();
+        return broker;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class TicketSideMessage {
+        private String ticketId;
+        private Long version;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class OrderSideMessage {
+        private String ticketId;
+        private Long version;
+    }
+}
@@ -0,0 +1,84 @@
+package com.ticketdaata.ticketservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryJournalTest {
+
+    private static final int SEGMENT_BYTES = 4096;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void unacknowledgedMessagesAreRecoveredInOffsetOrder() throws IOException {
+        InMemoryJournal journal = open();
+        long first = journal.append("ticket.queue", "first");
+        long second = journal.append("ticket.queue", "second");
+        journal.append("order.queue", "third");
+        journal.ack(second);
+        journal.awaitDurable(second);
+        journal.shutdown();
+
+        List<InMemoryJournal.PendingMessage> recovered = open().takeRecovered();
+
+        assertThat(recovered).extracting(InMemoryJournal.PendingMessage::offset).containsExactly(first, first + 2);
+        assertThat(recovered).extracting(InMemoryJournal.PendingMessage::payload).containsExactly("first", "third");
+        assertThat(recovered).extracting(InMemoryJournal.PendingMessage::queue).containsExactly("ticket.queue", "order.queue");
+    }
+
+    @Test
+    void restartsAfterBootsThatOnlyAcknowledgedOrWroteNothing() throws IOException {
+        InMemoryJournal journal = open();
+        long first = journal.append("ticket.queue", "first");
+        long second = journal.append("ticket.queue", "second");
+        journal.awaitDurable(second);
+        journal.shutdown();
+
+        // Second boot only acknowledges, so its segment holds ACKs and no new message offset
+        journal = open();
+        assertThat(journal.takeRecovered()).hasSize(2);
+        journal.ack(first);
+        journal.shutdown();
+
+        // Third and fourth boots write nothing at all
+        journal = open();
+        assertThat(journal.takeRecovered()).extracting(InMemoryJournal.PendingMessage::offset).containsExactly(second);
+        journal.shutdown();
+        journal = open();
+        long third = journal.append("ticket.queue", "third");
+        journal.awaitDurable(third);
+        journal.shutdown();
+
+        journal = open();
+        assertThat(third).isGreaterThan(second);
+        assertThat(journal.takeRecovered()).extracting(InMemoryJournal.PendingMessage::payload).containsExactly("second", "third");
+        journal.shutdown();
+    }
+
+    @Test
+    void fullyAcknowledgedJournalStartsEmpty() throws IOException {
+        InMemoryJournal journal = open();
+        long offset = journal.append("ticket.queue", "only");
+        journal.ack(offset);
+        journal.shutdown();
+
+        journal = open();
+        assertThat(journal.takeRecovered()).isEmpty();
+        assertThat(journal.append("ticket.queue", "next")).isGreaterThan(offset);
+        journal.shutdown();
+    }
+
+    private InMemoryJournal open() throws IOException {
+        return new InMemoryJournal(directory, SEGMENT_BYTES, 1, objectMapper);
+    }
+}
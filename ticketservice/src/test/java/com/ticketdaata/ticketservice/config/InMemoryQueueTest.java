@@ -0,0 +1,103 @@
+package com.ticketdaata.ticketservice.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryQueueTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final List<Object> deadLettered = new CopyOnWriteArrayList<>();
+    private final List<Long> acknowledged = new CopyOnWriteArrayList<>();
+    private InMemoryQueue queue;
+    private CountDownLatch acks;
+
+    @AfterEach
+    void tearDown() {
+        if (queue != null) {
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    void failedDeliveryIsRetriedBeforeTheMessagesBehindIt() throws InterruptedException {
+        List<Object> handled = new CopyOnWriteArrayList<>();
+        int[] failuresLeft = {2};
+        queue = newQueue(3);
+        queue.attach(payload -> {
+            if ("first".equals(payload) && failuresLeft[0]-- > 0) {
+                throw new IllegalStateException("transient");
+            }
+            handled.add(payload);
+        });
+
+        queue.publish(new InMemoryDelivery("first", 1), 1000);
+        queue.publish(new InMemoryDelivery("second", 2), 1000);
+        queue.publish(new InMemoryDelivery("third", 3), 1000);
+
+        assertThat(acks.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(handled).containsExactly("first", "second", "third");
+        assertThat(acknowledged).containsExactly(1L, 2L, 3L);
+        assertThat(queue.failedCount()).isEqualTo(2);
+        assertThat(queue.redeliveredCount()).isEqualTo(2);
+        assertThat(deadLettered).isEmpty();
+    }
+
+    @Test
+    void exhaustedDeliveryIsDeadLetteredAndTheQueueMovesOn() throws InterruptedException {
+        List<Object> handled = new CopyOnWriteArrayList<>();
+        queue = newQueue(1);
+        queue.attach(payload -> {
+            if ("poison".equals(payload)) {
+                throw new IllegalStateException("always fails");
+            }
+            handled.add(payload);
+        });
+
+        queue.publish(new InMemoryDelivery("poison", 1), 1000);
+        queue.publish(new InMemoryDelivery("next", 2), 1000);
+
+        assertThat(acks.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(deadLettered).containsExactly("poison");
+        assertThat(handled).containsExactly("next");
+        assertThat(queue.failedCount()).isEqualTo(MAX_ATTEMPTS);
+        // The dead letter keeps its journal offset, only the handled message is acknowledged
+        assertThat(acknowledged).containsExactly(2L);
+    }
+
+    @Test
+    void queueWithoutListenerKeepsMessagesUntracked() throws InterruptedException {
+        queue = newQueue(1);
+
+        assertThat(queue.publish(new InMemoryDelivery("early", 7), 1000)).isFalse();
+        assertThat(queue.size()).isEqualTo(1);
+
+        queue.attach(payload -> { });
+
+        assertThat(acks.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(acknowledged).containsExactly(-1L);
+    }
+
+    private InMemoryQueue newQueue(int expectedAcks) {
+        acks = new CountDownLatch(expectedAcks);
+        InMemoryQueue.FailureHandler failureHandler = (failedQueue, delivery, error) -> {
+            delivery.recordFailure(error.getMessage());
+            if (delivery.getFailedAttempts() >= MAX_ATTEMPTS) {
+                deadLettered.add(delivery.getPayload());
+                return -1;
+            }
+            return 10;
+        };
+        return new InMemoryQueue("test", 16, 4, failureHandler, delivery -> {
+            acknowledged.add(delivery.getJournalOffset());
+            acks.countDown();
+        });
+    }
+}
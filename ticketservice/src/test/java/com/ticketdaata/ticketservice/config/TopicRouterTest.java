@@ -0,0 +1,74 @@
+package com.ticketdaata.ticketservice.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Binding;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TopicRouterTest {
+
+    private static final String EXCHANGE = "ticket.exchange";
+
+    @Test
+    void starMatchesExactlyOneWord() {
+        TopicRouter router = new TopicRouter(List.of(bind("q.star", "ticket.*.reserved")));
+
+        assertThat(router.route(EXCHANGE, "ticket.42.reserved")).containsExactly("q.star");
+        assertThat(router.route(EXCHANGE, "ticket.reserved")).isEmpty();
+        assertThat(router.route(EXCHANGE, "ticket.42.43.reserved")).isEmpty();
+    }
+
+    @Test
+    void hashMatchesZeroOrMoreWords() {
+        TopicRouter router = new TopicRouter(List.of(bind("q.hash", "ticket.#"), bind("q.mid", "ticket.#.sold")));
+
+        assertThat(router.route(EXCHANGE, "ticket")).containsExactly("q.hash");
+        assertThat(router.route(EXCHANGE, "ticket.sold")).containsExactlyInAnyOrder("q.hash", "q.mid");
+        assertThat(router.route(EXCHANGE, "ticket.1.2.sold")).containsExactlyInAnyOrder("q.hash", "q.mid");
+        assertThat(router.route(EXCHANGE, "order.sold")).isEmpty();
+    }
+
+    @Test
+    void lonelyHashMatchesEveryKey() {
+        TopicRouter router = new TopicRouter(List.of(bind("q.all", "#")));
+
+        assertThat(router.route(EXCHANGE, "")).containsExactly("q.all");
+        assertThat(router.route(EXCHANGE, "a.b.c")).containsExactly("q.all");
+    }
+
+    @Test
+    void fansOutToEveryMatchingQueueOnce() {
+        TopicRouter router = new TopicRouter(List.of(
+                bind("q.exact", "ticket.reserved"),
+                bind("q.star", "ticket.*"),
+                bind("q.hash", "#.reserved"),
+                bind("q.hash", "ticket.#"),
+                bind("q.other", "ticket.released")));
+
+        assertThat(router.route(EXCHANGE, "ticket.reserved"))
+                .containsExactlyInAnyOrder("q.exact", "q.star", "q.hash");
+    }
+
+    @Test
+    void unknownExchangeRoutesNowhereAndDefaultExchangeRoutesByQueueName() {
+        TopicRouter router = new TopicRouter(List.of(bind("q.all", "#")));
+
+        assertThat(router.route("missing.exchange", "ticket.reserved")).isEmpty();
+        assertThat(router.route("", "ticket.queue")).containsExactly("ticket.queue");
+    }
+
+    @Test
+    void repeatedRouteIsServedFromTheMemo() {
+        TopicRouter router = new TopicRouter(List.of(bind("q.star", "ticket.*")));
+
+        List<String> first = router.route(EXCHANGE, "ticket.sold");
+
+        assertThat(router.route(EXCHANGE, "ticket.sold")).isSameAs(first);
+    }
+
+    private static Binding bind(String queue, String pattern) {
+        return new Binding(queue, Binding.DestinationType.QUEUE, EXCHANGE, pattern, null);
+    }
+}
@@ -0,0 +1,122 @@
+package com.ticketdaata.ticketservice.live;
+
+import com.ticketdaata.ticketservice.dto.TicketResponse;
+import com.ticketdaata.ticketservice.entity.TicketStatus;
+import com.ticketdaata.ticketservice.messaging.dto.TicketSnapshotMessage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A subscriber whose client stopped reading blocks its write; the others must keep getting updates.
+ */
+class TicketAvailabilityFeedTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Deque<RecordingEmitter> nextEmitters = new ArrayDeque<>();
+    private final CountDownLatch unstall = new CountDownLatch(1);
+    private TicketAvailabilityFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        feed = new TicketAvailabilityFeed(meterRegistry) {
+            @Override
+            SseEmitter newEmitter(long timeoutMillis) {
+                return nextEmitters.removeFirst();
+            }
+        };
+        ReflectionTestUtils.setField(feed, "flushIntervalMs", 10L);
+        ReflectionTestUtils.setField(feed, "maxPending", 100);
+        ReflectionTestUtils.setField(feed, "sendTimeoutMs", 200L);
+        ReflectionTestUtils.setField(feed, "heartbeatSeconds", 60L);
+        ReflectionTestUtils.setField(feed, "senderThreads", 1);
+        ReflectionTestUtils.setField(feed, "maxSenderThreads", 8);
+        ReflectionTestUtils.setField(feed, "timeoutMinutes", 1L);
+        feed.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        unstall.countDown();
+        feed.stop();
+    }
+
+    @Test
+    void stalledSubscriberDoesNotHoldUpTheOthers() throws Exception {
+        RecordingEmitter stalled = subscribe(new RecordingEmitter(unstall));
+        RecordingEmitter healthy = subscribe(new RecordingEmitter(null));
+
+        feed.handleTicketSnapshot(changed("t1", 1L));
+        await(() -> stalled.sent.size() == 1 && healthy.sent.size() == 1);
+
+        // The stalled write still holds the only core sender when the eviction comes due
+        await(() -> meterRegistry.counter("tickets.live.evictions").count() == 1);
+        feed.handleTicketSnapshot(changed("t2", 1L));
+        await(() -> healthy.sent.size() == 2);
+        assertThat(healthy.sent).allMatch(event -> event.contains("event:tickets"));
+
+        unstall.countDown();
+        await(() -> stalled.sent.size() == 2);
+        assertThat(stalled.sent.get(1)).contains("event:evicted");
+    }
+
+    private RecordingEmitter subscribe(RecordingEmitter emitter) {
+        nextEmitters.add(emitter);
+        feed.subscribe(null);
+        return emitter;
+    }
+
+    private static TicketSnapshotMessage changed(String ticketId, Long version) {
+        TicketResponse ticket = TicketResponse.builder().id(ticketId).eventName("Concert")
+                .status(TicketStatus.RESERVED).version(version).build();
+        return TicketSnapshotMessage.builder().ticketId(ticketId).ticket(ticket).version(version)
+                .eventType("TICKET_CHANGED").build();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    // Records the text of every event written; with a latch, the first write blocks until it opens
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> sent = new CopyOnWriteArrayList<>();
+        private final CountDownLatch stall;
+
+        RecordingEmitter(CountDownLatch stall) {
+            this.stall = stall;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(part -> text.append(part.getData()));
+            sent.add(text.toString());
+            if (stall != null && sent.size() == 1) {
+                try {
+                    stall.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.ticketdaata.ticketservice.messaging.idempotency;
+
+import com.ticketdaata.ticketservice.entity.ProcessedMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProcessedMessageStoreTest {
+
+    private MongoTemplate mongoTemplate;
+    private ProcessedMessageStore store;
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        store = new ProcessedMessageStore(mongoTemplate, new SimpleMeterRegistry(), 10, 10, 1000, 300);
+    }
+
+    @Test
+    void claimOnlyTakesOverAnExpiredLease() {
+        store.processOnce("m1", runs::incrementAndGet);
+
+        ArgumentCaptor<Query> claim = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).upsert(claim.capture(), any(Update.class), eq(ProcessedMessage.class));
+        Document criteria = claim.getValue().getQueryObject();
+        assertThat(criteria.get("_id")).isEqualTo("m1");
+        assertThat(criteria.get("status")).isEqualTo(ProcessedMessage.Status.CLAIMED);
+        assertThat(criteria.get("claimedAt", Document.class)).containsKey("$lt");
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void finishedMessageIsMarkedDoneAndSkippedOnRedelivery() {
+        store.processOnce("m1", runs::incrementAndGet);
+        store.processOnce("m1", runs::incrementAndGet);
+
+        ArgumentCaptor<Update> done = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), done.capture(), eq(ProcessedMessage.class));
+        assertThat(done.getValue().getUpdateObject().get("$set", Document.class))
+                .containsEntry("status", ProcessedMessage.Status.DONE);
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void liveClaimIsSkippedButNotRememberedAsDone() {
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(ProcessedMessage.class)))
+                .thenThrow(new DuplicateKeyException("E11000"))
+                .thenReturn(null);
+
+        store.processOnce("m1", runs::incrementAndGet);
+        assertThat(runs).hasValue(0);
+
+        // The other consumer's handler failed and dropped its claim, so the redelivery must run
+        store.processOnce("m1", runs::incrementAndGet);
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void failedHandlerReleasesItsClaim() {
+        assertThatThrownBy(() -> store.processOnce("m1", () -> {
+            throw new IllegalStateException("handler down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        verify(mongoTemplate).remove(any(Query.class), eq(ProcessedMessage.class));
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(ProcessedMessage.class));
+
+        store.processOnce("m1", runs::incrementAndGet);
+        assertThat(runs).hasValue(1);
+    }
+}
@@ -0,0 +1,117 @@
+package com.ticketdaata.ticketservice.messaging.publisher;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RabbitPublishPipelineTest {
+
+    private record Sent(Object payload, CorrelationData correlation) {
+    }
+
+    private final List<Sent> sent = new CopyOnWriteArrayList<>();
+    private RabbitPublishPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        RabbitOperations operations = mock(RabbitOperations.class);
+        doAnswer(invocation -> sent.add(new Sent(invocation.getArgument(2), invocation.getArgument(3))))
+                .when(operations).convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+        RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation ->
+                invocation.<RabbitOperations.OperationsCallback<?>>getArgument(0).doInRabbit(operations));
+
+        pipeline = new RabbitPublishPipeline(rabbitTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(pipeline, "outboxCapacity", 16);
+        ReflectionTestUtils.setField(pipeline, "batchSize", 10);
+        ReflectionTestUtils.setField(pipeline, "lingerMs", 5L);
+        ReflectionTestUtils.setField(pipeline, "enqueueTimeoutMs", 100L);
+        ReflectionTestUtils.setField(pipeline, "confirmTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(pipeline, "maxAttempts", 2);
+        ReflectionTestUtils.setField(pipeline, "initialBackoffMs", 10L);
+        ReflectionTestUtils.setField(pipeline, "maxBackoffMs", 10L);
+        pipeline.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        sent.forEach(message -> message.correlation().getFuture().complete(new CorrelationData.Confirm(true, null)));
+        pipeline.shutdown();
+    }
+
+    @Test
+    void nackedMessageIsRetriedBeforeTheNextOneWithItsKey() throws Exception {
+        CompletableFuture<Void> reserve = pipeline.publish("ticket.exchange", "ticket.reserve.1", "RESERVE", "ticket-1");
+        CompletableFuture<Void> release = pipeline.publish("ticket.exchange", "ticket.release.1", "RELEASE", "ticket-1");
+        pipeline.publish("ticket.exchange", "ticket.reserve.2", "OTHER", "ticket-2");
+
+        awaitSent(2);
+        assertThat(payloads()).containsExactly("RESERVE", "OTHER");
+
+        sent.get(0).correlation().getFuture().complete(new CorrelationData.Confirm(false, "nack"));
+        awaitSent(3);
+        Thread.sleep(50);
+        assertThat(payloads()).containsExactly("RESERVE", "OTHER", "RESERVE");
+
+        sent.get(2).correlation().getFuture().complete(new CorrelationData.Confirm(true, null));
+        reserve.get(5, TimeUnit.SECONDS);
+        awaitSent(4);
+        assertThat(payloads()).containsExactly("RESERVE", "OTHER", "RESERVE", "RELEASE");
+
+        sent.get(3).correlation().getFuture().complete(new CorrelationData.Confirm(true, null));
+        release.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void messageGivenUpOnReleasesTheNextOneWithItsKey() throws Exception {
+        CompletableFuture<Void> reserve = pipeline.publish("ticket.exchange", "ticket.reserve.1", "RESERVE", "ticket-1");
+        pipeline.publish("ticket.exchange", "ticket.release.1", "RELEASE", "ticket-1");
+
+        awaitSent(1);
+        sent.get(0).correlation().getFuture().complete(new CorrelationData.Confirm(false, "nack"));
+        awaitSent(2);
+        sent.get(1).correlation().getFuture().complete(new CorrelationData.Confirm(false, "nack"));
+
+        assertThat(reserve).failsWithin(5, TimeUnit.SECONDS);
+        awaitSent(3);
+        assertThat(payloads()).containsExactly("RESERVE", "RESERVE", "RELEASE");
+    }
+
+    @Test
+    void messagesWithoutKeyAreNotHeldBack() throws Exception {
+        pipeline.publish("order.exchange", "order.created", "FIRST");
+        pipeline.publish("order.exchange", "order.created", "SECOND");
+
+        awaitSent(2);
+        assertThat(payloads()).containsExactly("FIRST", "SECOND");
+    }
+
+    private List<Object> payloads() {
+        return sent.stream().map(Sent::payload).toList();
+    }
+
+    private void awaitSent(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (sent.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(sent).hasSizeGreaterThanOrEqualTo(count);
+    }
+}
@@ -0,0 +1,94 @@
+package com.ticketdaata.ticketservice.repository;
+
+import com.ticketdaata.ticketservice.dto.TicketResponse;
+import com.ticketdaata.ticketservice.entity.Ticket;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.data.repository.core.RepositoryMetadata;
+import org.springframework.data.repository.core.support.DefaultRepositoryMetadata;
+import org.springframework.data.repository.query.ReturnedType;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that ticket reads go through the {@link TicketResponse} DTO projection and that the projection
+ * maps a stored document to the same response the old entity -> DTO copy produced (no database needed).
+ */
+class TicketReadPathProjectionTest {
+
+    private MappingMongoConverter converter;
+    private Document document;
+
+    @BeforeEach
+    void setUp() {
+        MongoCustomConversions conversions = new MongoCustomConversions(Collections.emptyList());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+
+        document = new Document("_id", new ObjectId())
+                .append("eventName", "Coke Studio Concert")
+                .append("category", "Concert")
+                .append("location", "Sher E Bangla Square Garden")
+                .append("eventDate", new Date())
+                .append("seatInfo", "Section A, Row 1, Seat 1")
+                .append("price", 150.0)
+                .append("status", "AVAILABLE")
+                .append("userId", "user1")
+                .append("sellerId", 123L)
+                .append("version", 0L);
+    }
+
+    @Test
+    void repositoryReadMethodsReturnTheProjection() {
+        RepositoryMetadata metadata = DefaultRepositoryMetadata.getMetadata(TicketRepository.class);
+        SpelAwareProxyProjectionFactory factory = new SpelAwareProxyProjectionFactory();
+
+        for (Method method : TicketRepository.class.getDeclaredMethods()) {
+            Class<?> returned = metadata.getReturnedDomainClass(method);
+            assertThat(returned).as(method.getName()).isEqualTo(TicketResponse.class);
+
+            ReturnedType returnedType = ReturnedType.of(returned, Ticket.class, factory);
+            assertThat(returnedType.isProjecting()).as(method.getName()).isTrue();
+            assertThat(returnedType.getTypeToRead()).as(method.getName()).isEqualTo(TicketResponse.class);
+        }
+    }
+
+    @Test
+    void projectionReadsTheSameResponseAsTheEntityCopy() {
+        Ticket ticket = converter.read(Ticket.class, document);
+        TicketResponse fromEntity = TicketResponse.builder()
+                .id(ticket.getId())
+                .eventName(ticket.getEventName())
+                .category(ticket.getCategory())
+                .location(ticket.getLocation())
+                .eventDate(ticket.getEventDate())
+                .seatInfo(ticket.getSeatInfo())
+                .price(ticket.getPrice())
+                .status(ticket.getStatus())
+                .userId(ticket.getUserId())
+                .sellerId(ticket.getSellerId())
+                .version(ticket.getVersion())
+                .build();
+
+        TicketResponse projected = converter.read(TicketResponse.class, document);
+
+        assertThat(projected).isEqualTo(fromEntity);
+        assertThat(projected.getId()).isEqualTo(document.getObjectId("_id").toHexString());
+    }
+}
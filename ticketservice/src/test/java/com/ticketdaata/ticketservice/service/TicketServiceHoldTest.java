@@ -0,0 +1,95 @@
+package com.ticketdaata.ticketservice.service;
+
+import com.ticketdaata.ticketservice.cache.TicketCache;
+import com.ticketdaata.ticketservice.entity.Ticket;
+import com.ticketdaata.ticketservice.entity.TicketStatus;
+import com.ticketdaata.ticketservice.messaging.publisher.TicketEventPublisherInterface;
+import com.ticketdaata.ticketservice.repository.TicketRepository;
+import com.ticketdaata.ticketservice.search.TicketSearchIndex;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Redelivered reservation and sale requests must succeed again for the order that already holds the seat.
+ */
+class TicketServiceHoldTest {
+
+    private TicketRepository ticketRepository;
+    private TicketEventPublisherInterface ticketEventPublisher;
+    private TicketService ticketService;
+
+    @BeforeEach
+    void setUp() {
+        ticketRepository = mock(TicketRepository.class);
+        ticketEventPublisher = mock(TicketEventPublisherInterface.class);
+        ticketService = new TicketService(ticketRepository, ticketEventPublisher, mock(TicketSearchIndex.class),
+                mock(TicketCache.class), mock(Validator.class));
+        when(ticketRepository.compareAndSetStatus(anyString(), any(), any(), any(), any())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void repeatedReserveForTheHoldingOrderSucceeds() {
+        when(ticketRepository.findById("t1")).thenReturn(Optional.of(ticket("t1", TicketStatus.RESERVED, "order-1")));
+
+        assertThat(ticketService.reserve("t1", 0L, "order-1").getStatus()).isEqualTo(TicketStatus.RESERVED);
+        verify(ticketEventPublisher, never()).publishTicketChanged(any());
+    }
+
+    @Test
+    void reserveOfATicketHeldByAnotherOrderFails() {
+        when(ticketRepository.findById("t1")).thenReturn(Optional.of(ticket("t1", TicketStatus.RESERVED, "order-2")));
+
+        assertThatThrownBy(() -> ticketService.reserve("t1", 0L, "order-1")).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void repeatedSaleForTheHoldingOrderSucceeds() {
+        when(ticketRepository.findById("t1")).thenReturn(Optional.of(ticket("t1", TicketStatus.SOLD, "order-1")));
+
+        assertThat(ticketService.markSold("t1", "order-1").getStatus()).isEqualTo(TicketStatus.SOLD);
+    }
+
+    @Test
+    void repeatedSeatBlockForTheHoldingOrderSucceedsWithoutReleasingIt() {
+        Map<String, Long> versions = new HashMap<>(Map.of("t1", 0L, "t2", 0L));
+        when(ticketRepository.reserveAll(versions, "order-1")).thenReturn(0L);
+        when(ticketRepository.findAllById(versions.keySet())).thenReturn(List.of(
+                ticket("t1", TicketStatus.RESERVED, "order-1"),
+                ticket("t2", TicketStatus.RESERVED, "order-1")));
+
+        ticketService.reserveAll(versions, "order-1");
+
+        verify(ticketRepository, never()).releaseHold(anyString());
+    }
+
+    @Test
+    void seatBlockPartlyHeldByAnotherOrderIsReleased() {
+        Map<String, Long> versions = new HashMap<>(Map.of("t1", 0L, "t2", 0L));
+        when(ticketRepository.reserveAll(versions, "order-1")).thenReturn(1L);
+        when(ticketRepository.findAllById(versions.keySet())).thenReturn(List.of(
+                ticket("t1", TicketStatus.RESERVED, "order-1"),
+                ticket("t2", TicketStatus.RESERVED, "order-2")));
+
+        assertThatThrownBy(() -> ticketService.reserveAll(versions, "order-1")).isInstanceOf(IllegalStateException.class);
+        verify(ticketRepository).releaseHold("order-1");
+    }
+
+    private static Ticket ticket(String id, TicketStatus status, String holdId) {
+        return Ticket.builder().id(id).status(status).holdId(holdId).version(1L).build();
+    }
+}